@@ -3,6 +3,7 @@ package com.example.render;
 import com.example.config.ModConfig;
 import com.example.ai.PathDebugData;
 import com.example.ai.BuildPlanData;
+import com.example.ai.PackedPath;
 import com.mojang.blaze3d.vertex.PoseStack;
 import com.mojang.blaze3d.vertex.VertexConsumer;
 import net.fabricmc.fabric.api.client.rendering.v1.WorldRenderContext;
@@ -14,7 +15,6 @@ import net.minecraft.core.BlockPos;
 import net.minecraft.world.phys.Vec3;
 import org.joml.Matrix4f;
 
-import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -61,21 +61,21 @@ public class PathDebugRenderer {
         MultiBufferSource.BufferSource bufferSource = client.renderBuffers().bufferSource();
 
         // Get all mob paths and render them
-        Map<UUID, List<BlockPos>> allPaths = PathDebugData.getAllPaths();
+        Map<UUID, PackedPath> allPaths = PathDebugData.getAllPaths();
 
-        for (Map.Entry<UUID, List<BlockPos>> entry : allPaths.entrySet()) {
-            List<BlockPos> path = entry.getValue();
+        for (Map.Entry<UUID, PackedPath> entry : allPaths.entrySet()) {
+            PackedPath path = entry.getValue();
             if (path != null && path.size() > 1) {
                 renderPath(poseStack, bufferSource, path);
             }
         }
 
         // Render build plans (blocks to be placed)
-        Map<UUID, List<BlockPos>> allBuildPlans = BuildPlanData.getAllBuildPlans();
+        Map<UUID, PackedPath> allBuildPlans = BuildPlanData.getAllBuildPlans();
 
-        for (Map.Entry<UUID, List<BlockPos>> entry : allBuildPlans.entrySet()) {
-            List<BlockPos> plan = entry.getValue();
-            if (plan != null && !plan.isEmpty()) {
+        for (Map.Entry<UUID, PackedPath> entry : allBuildPlans.entrySet()) {
+            PackedPath plan = entry.getValue();
+            if (plan != null && plan.hasPlacements()) {
                 renderBuildPlan(poseStack, bufferSource, plan);
             }
         }
@@ -87,7 +87,7 @@ public class PathDebugRenderer {
      * Render a single path
      */
     private static void renderPath(PoseStack poseStack, MultiBufferSource.BufferSource bufferSource,
-            List<BlockPos> path) {
+            PackedPath path) {
         if (path.isEmpty())
             return;
 
@@ -96,21 +96,21 @@ public class PathDebugRenderer {
 
         // Render path lines
         for (int i = 0; i < path.size() - 1; i++) {
-            BlockPos from = path.get(i);
-            BlockPos to = path.get(i + 1);
+            long from = path.pos(i);
+            long to = path.pos(i + 1);
 
             // Calculate gradient color based on position in path
             float progress = (float) i / (path.size() - 1);
             float[] color = lerpColor(START_COLOR, END_COLOR, progress);
 
             // Draw line from center of one block to center of next
-            float x1 = from.getX() + 0.5f;
-            float y1 = from.getY() + 0.5f;
-            float z1 = from.getZ() + 0.5f;
+            float x1 = BlockPos.getX(from) + 0.5f;
+            float y1 = BlockPos.getY(from) + 0.5f;
+            float z1 = BlockPos.getZ(from) + 0.5f;
 
-            float x2 = to.getX() + 0.5f;
-            float y2 = to.getY() + 0.5f;
-            float z2 = to.getZ() + 0.5f;
+            float x2 = BlockPos.getX(to) + 0.5f;
+            float y2 = BlockPos.getY(to) + 0.5f;
+            float z2 = BlockPos.getZ(to) + 0.5f;
 
             // Calculate normal for the line
             float dx = x2 - x1;
@@ -241,13 +241,13 @@ public class PathDebugRenderer {
      * Render a build plan (blocks to be placed) as green wireframe cubes
      */
     private static void renderBuildPlan(PoseStack poseStack, MultiBufferSource.BufferSource bufferSource,
-            List<BlockPos> plan) {
-        if (plan.isEmpty())
-            return;
-
-        for (BlockPos pos : plan) {
-            // Render full-size green wireframe cube at block position
-            renderBlockMarker(poseStack, bufferSource, pos, BUILD_COLOR, 0.0f);
+            PackedPath plan) {
+        for (int i = 0; i < plan.size(); i++) {
+            BlockPos pos = plan.buildTarget(i);
+            if (pos != null) {
+                // Render full-size green wireframe cube at block position
+                renderBlockMarker(poseStack, bufferSource, pos, BUILD_COLOR, 0.0f);
+            }
         }
     }
 
@@ -1,5 +1,15 @@
 package com.example;
 
+import com.example.ai.AsyncPathfinder;
+import com.example.ai.FailedSearches;
+import com.example.ai.FlowField;
+import com.example.ai.HuntAgents;
+import com.example.ai.HuntRules;
+import com.example.ai.HuntScheduler;
+import com.example.ai.Landmarks;
+import com.example.ai.NavigabilityIndex;
+import com.example.ai.Reachability;
+import com.example.ai.SharedPaths;
 import com.example.antitower.AntiTowerHandler;
 import net.fabricmc.api.ModInitializer;
 import com.mojang.brigadier.arguments.DoubleArgumentType;
@@ -147,6 +157,36 @@ public class ChallengeMod implements ModInitializer {
 		// Register anti-tower handler
 		AntiTowerHandler.register();
 
+		// Register hunt targets (per-level player grid, batched target assignment)
+		HuntRules.register();
+
+		// Register the staggered hunt schedule
+		HuntScheduler.register();
+
+		// Register per-mob agent slots (assigned on entity load, freed on unload)
+		HuntAgents.register();
+
+		// Register navigability index (chunk unload / server stop cleanup)
+		NavigabilityIndex.register();
+
+		// Register background pathfinding (per-tick search budget shared by sliced jobs)
+		AsyncPathfinder.register();
+
+		// Register per-player flow fields (rebuilt as the player moves)
+		FlowField.register();
+
+		// Register landmark distance tables (per-player heuristic bounds)
+		Landmarks.register();
+
+		// Register shared paths (expired path sweep)
+		SharedPaths.register();
+
+		// Register walking components (per-player reachability labels)
+		Reachability.register();
+
+		// Register failed search memo (expired entry sweep)
+		FailedSearches.register();
+
 		CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) -> {
 			dispatcher.register(Commands.literal("fasttarget")
 					.executes(context -> setTargetMode(context.getSource(), TargetMode.FAST)));
@@ -2,13 +2,13 @@ package com.example.ai;
 
 import com.example.antitower.MobBreakerHandler;
 import net.minecraft.core.BlockPos;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import net.minecraft.world.entity.Mob;
-import net.minecraft.world.level.Level;
-import net.minecraft.world.level.block.Blocks;
-import net.minecraft.world.level.block.state.BlockState;
-import net.minecraft.world.level.pathfinder.PathComputationType;
 
-import java.util.*;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * A* pathfinding implementation for mobs to find players.
@@ -19,6 +19,12 @@ public class AStarPathfinder {
     private static final int MAX_NODES = 3000; // Maximum nodes to explore (Reduced to prevent stutter)
     private static final int MAX_PATH_LENGTH = 200; // Maximum path length
 
+    // Node storage is pooled and reused between searches so a search allocates (almost) nothing.
+    // A search holds its store until it finishes, which may be several ticks later.
+    private static final ConcurrentLinkedQueue<PathNodeStore> NODE_STORES = new ConcurrentLinkedQueue<>();
+    private static final ConcurrentLinkedQueue<BlockClassCache> BLOCK_CACHES = new ConcurrentLinkedQueue<>();
+    private static final ConcurrentLinkedQueue<Backward> BACKWARD_STORES = new ConcurrentLinkedQueue<>();
+
     // Directions for neighbor exploration (including diagonals and vertical)
     private static final int[][] DIRECTIONS = {
             // Horizontal movements
@@ -35,71 +41,57 @@ public class AStarPathfinder {
             { 1, 1, 1 }, { 1, 1, -1 }, { -1, 1, 1 }, { -1, 1, -1 }
     };
 
-    /**
-     * Node class for A* algorithm
-     */
-    public static class PathNode implements Comparable<PathNode> {
-        public final BlockPos pos;
-        public double gCost; // Cost from start
-        public double hCost; // Heuristic cost to goal
-        public PathNode parent;
-        public BlockPos buildPos; // Block to place to reach this node
-
-        public PathNode(BlockPos pos) {
-            this.pos = pos;
-            this.gCost = Double.MAX_VALUE;
-            this.hCost = 0;
-            this.buildPos = null;
-        }
-
-        public double fCost() {
-            return gCost + hCost;
-        }
-
-        @Override
-        public int compareTo(PathNode other) {
-            int compare = Double.compare(this.fCost(), other.fCost());
-            if (compare == 0) {
-                compare = Double.compare(this.hCost, other.hCost);
-            }
-            return compare;
-        }
-
-        @Override
-        public boolean equals(Object obj) {
-            if (this == obj)
-                return true;
-            if (!(obj instanceof PathNode))
-                return false;
-            return pos.equals(((PathNode) obj).pos);
-        }
-
-        @Override
-        public int hashCode() {
-            return pos.hashCode();
-        }
-    }
+    // 2-block cardinal jumps over gaps
+    private static final int[][] JUMPS = { { 2, 0, 0 }, { -2, 0, 0 }, { 0, 0, 2 }, { 0, 0, -2 } };
+
+    // Cells the backward frontier of a layered search may reach; running out below this means the target is enclosed
+    private static final int BACKWARD_LIMIT = 1024;
+    // Extra heuristic weight once the target is known to be enclosed
+    private static final double ENCLOSED_WEIGHT = 4.0;
+
+    // Most blocks between two waypoints of a string-pulled path
+    private static final int MAX_WAYPOINT_SPACING = 8;
+
+    // Longest run a jump point search scans in one direction before it adds a node anyway
+    private static final int MAX_JUMP = 16;
+
+    // Move layers, cheapest first. A path's layer is the highest layer of any of its moves.
+    public static final int LAYER_WALK = 0;
+    public static final int LAYER_SOFT_BREAK = 1;
+    public static final int LAYER_BUILD = 2;
+    public static final int LAYER_HARD_BREAK = 3;
+    // Hardest block the soft-break layer covers (dirt, sand, wood planks are below this)
+    private static final float SOFT_HARDNESS = 1.0f;
+    // Layered searches add this to every move of a layer, so a route using a costlier
+    // layer has to save real distance before it beats a cheaper one
+    static final double[] LAYER_PENALTY = { 0.0, 20.0, 40.0, 80.0 };
+    // Weighted A*: estimates are inflated to prioritize speed/greediness over perfect efficiency
+    private static final double HEURISTIC_WEIGHT = 1.5;
 
     /**
      * Result of pathfinding
      */
     public static class PathResult {
-        public final List<BlockPos> path;
+        public final PackedPath path; // Nodes with their move actions; placed blocks go below their node
         public final boolean found;
         public final boolean isPartial;
         public final int nodesExplored;
-        public final Map<BlockPos, BlockPos> buildActions; // Node -> Block to place
+        public final int layer; // Highest LAYER_* used along the path
+        // Set when the search found that no walk reaches the target from outside a small area around it
+        public boolean enclosed;
+        // Set when the search ended because the open list ran out, not the node budget
+        public boolean exhausted;
 
-        public PathResult(List<BlockPos> path, boolean found, boolean isPartial, int nodesExplored, Map<BlockPos, BlockPos> buildActions) {
+        public PathResult(PackedPath path, boolean found, boolean isPartial, int nodesExplored, int layer) {
             this.path = path;
             this.found = found;
             this.isPartial = isPartial;
             this.nodesExplored = nodesExplored;
-            this.buildActions = buildActions != null ? buildActions : Collections.emptyMap();
+            this.layer = layer;
         }
 
         public static PathResult notFound(int nodesExplored) {
-            return new PathResult(Collections.emptyList(), false, false, nodesExplored, null);
+            return new PathResult(PackedPath.EMPTY, false, false, nodesExplored, LAYER_WALK);
         }
     }
 
@@ -123,77 +115,314 @@ public class AStarPathfinder {
     }
 
     public static PathResult findPath(Mob mob, BlockPos start, BlockPos target, boolean allowBreaking, boolean allowBuilding, float maxHardness) {
-        Level level = mob.level();
+        return findPath(NavSnapshot.capture(mob.level(), start, target), start, target, allowBreaking, allowBuilding, maxHardness);
+    }
+
+    /**
+     * Search against a captured snapshot. Safe to call from any thread.
+     */
+    public static PathResult findPath(NavSnapshot snapshot, BlockPos start, BlockPos target, boolean allowBreaking, boolean allowBuilding, float maxHardness) {
+        Search search = new Search(snapshot, start, target, allowBreaking, allowBuilding, maxHardness, MAX_NODES);
+        search.step(MAX_NODES);
+        return search.result();
+    }
+
+    /**
+     * A resumable A* search. The open and closed sets survive between step()
+     * calls, so a long search can be spread over several ticks instead of being
+     * cut off. Steps may run on different threads, but never concurrently.
+     */
+    public static final class Search {
+        private final NavSnapshot snapshot;
+        private final BlockPos target;
+        private final boolean allowBreaking;
+        private final boolean allowBuilding;
+        private final float maxHardness;
+        private final int maxNodes;
+        private final long startKey;
+        // Layered: every move type at once, with LAYER_PENALTY per move
+        private final boolean layered;
+        // Known that the target can't be reached by walking alone, so a walk-only node needs at least one penalised move.
+        // Also set mid-search once the backward frontier finds the target enclosed.
+        private boolean walkUnreachable;
+        // Landmark lower bounds towards the target, or null
+        private final Landmarks.Estimator landmarks;
+
+        private PathNodeStore nodes;
+        private BlockClassCache blocks;
+        private int startNode;
+        private int closestNode;
+        private double minHCost;
+        private int nodesExplored;
+        private PathResult result;
+        // Walk-only frontier grown from the target (layered searches), or null once released
+        private Backward backward;
+        private boolean backwardDone;
+        private boolean enclosed;
+        // Sections of every block the search looked at, for layered searches
+        private long[] touchedSections = new long[0];
+
+        public Search(NavSnapshot snapshot, BlockPos start, BlockPos target, boolean allowBreaking, boolean allowBuilding, float maxHardness, int maxNodes) {
+            this(snapshot, start, target, allowBreaking, allowBuilding, maxHardness, maxNodes, false, false, null);
+        }
+
+        private Search(NavSnapshot snapshot, BlockPos start, BlockPos target, boolean allowBreaking, boolean allowBuilding,
+                float maxHardness, int maxNodes, boolean layered, boolean walkUnreachable, Landmarks.Estimator landmarks) {
+            this.snapshot = snapshot;
+            this.target = target;
+            this.allowBreaking = allowBreaking;
+            this.allowBuilding = allowBuilding;
+            this.maxHardness = maxHardness;
+            this.maxNodes = maxNodes;
+            this.startKey = start.asLong();
+            this.layered = layered;
+            this.walkUnreachable = walkUnreachable;
+            this.landmarks = landmarks;
+
+            // Quick checks
+            if (start.equals(target)) {
+                result = new PathResult(PackedPath.wrap(new long[] { target.asLong() }, new byte[1]), true, false, 0, LAYER_WALK);
+            }
+        }
+
+        /**
+         * One search over all move layers (walking, breaking by hardness tier,
+         * bridging and pillaring) instead of one search per strategy. The result's
+         * layer says which strategy the best path needs. landmarks, if not null,
+         * tightens the heuristic; its bounds hold for layered costs only.
+         *
+         * The search is bidirectional: alongside the forward search, a walk-only
+         * frontier grows back from the target. The forward search stops as soon
+         * as it reaches a cell of that frontier and walks the rest of the way. If
+         * the frontier runs out while still small, the target is enclosed (a
+         * player inside a base), and from then on walk-only nodes are charged the
+         * cheapest breach as if walkUnreachable had been passed.
+         */
+        public static Search layered(NavSnapshot snapshot, BlockPos start, BlockPos target, int maxNodes, boolean walkUnreachable,
+                Landmarks.Estimator landmarks) {
+            return new Search(snapshot, start, target, true, true, Float.MAX_VALUE, maxNodes, true, walkUnreachable, landmarks);
+        }
+
+        public boolean isDone() {
+            return result != null;
+        }
+
+        /**
+         * The finished result, or null while the search is still running.
+         */
+        public PathResult result() {
+            return result;
+        }
+
+        public int nodesExplored() {
+            return nodesExplored;
+        }
+
+        /**
+         * Keys of the sections the finished search read blocks from; the result
+         * holds as long as none of them change. Empty for non-layered searches.
+         */
+        public long[] touchedSections() {
+            return touchedSections;
+        }
+
+        /**
+         * Expand up to budget nodes.
+         *
+         * @return the number of nodes expanded
+         */
+        public int step(int budget) {
+            if (result != null) {
+                return 0;
+            }
+            if (nodes == null) {
+                begin();
+            }
+
+            int expanded = 0;
+            while (expanded < budget) {
+                if (!backwardDone) {
+                    // One backward expansion per forward one, charged to the same slice budget
+                    // but not to maxNodes, which only counts forward expansions
+                    expandBackward();
+                    expanded++;
+                }
+                if (nodes.isOpenEmpty() || nodesExplored >= maxNodes) {
+                    // Check if we found a partial path
+                    if (closestNode != startNode && nodes.pos(closestNode) != startKey) {
+                        finish(reconstructPathResult(nodes, closestNode, null, nodesExplored));
+                    } else {
+                        PathResult failed = PathResult.notFound(nodesExplored);
+                        failed.exhausted = nodes.isOpenEmpty();
+                        finish(failed);
+                    }
+                    break;
+                }
+
+                int current = nodes.poll();
+                nodesExplored++;
+                expanded++;
+
+                // Track closest node (by plain distance: hCost may carry a layer bonus)
+                double h = heuristic(nodes.pos(current), target);
+                if (h < minHCost) {
+                    minHCost = h;
+                    closestNode = current;
+                }
+
+                // Check if we reached the target (within 2 blocks)
+                if (distSqr(nodes.pos(current), target) < 4.0) {
+                    finish(reconstructPathResult(nodes, current, null, nodesExplored));
+                    break;
+                }
+
+                // Met the backward frontier: the rest is a known walk
+                if (backward != null && backward.next.containsKey(nodes.pos(current))) {
+                    finish(reconstructPathResult(nodes, current, backward.next, nodesExplored));
+                    break;
+                }
 
-        // Quick checks
-        if (start.equals(target)) {
-            return new PathResult(Collections.singletonList(target), true, false, 0, null);
+                nodes.close(current);
+                expand(current);
+            }
+            return expanded;
         }
 
-        // A* algorithm
-        PriorityQueue<PathNode> openSet = new PriorityQueue<>();
-        Map<BlockPos, PathNode> allNodes = new HashMap<>();
-        Set<BlockPos> closedSet = new HashSet<>();
+        /**
+         * Give the pooled storage back without finishing. Only call while no step() is running.
+         */
+        public void abandon() {
+            if (result == null) {
+                result = PathResult.notFound(nodesExplored);
+                release();
+            }
+        }
 
-        PathNode startNode = new PathNode(start);
-        startNode.gCost = 0;
-        startNode.hCost = heuristic(start, target);
-        openSet.add(startNode);
-        allNodes.put(start, startNode);
+        private void begin() {
+            nodes = NODE_STORES.poll();
+            if (nodes == null) {
+                nodes = new PathNodeStore();
+            }
+            blocks = BLOCK_CACHES.poll();
+            if (blocks == null) {
+                blocks = new BlockClassCache();
+            }
+            nodes.reset();
+            blocks.reset(snapshot);
 
-        PathNode closestNode = startNode;
-        double minHCost = startNode.hCost;
+            if (layered) {
+                backward = BACKWARD_STORES.poll();
+                if (backward == null) {
+                    backward = new Backward();
+                }
+                backward.reset(target.asLong());
+            }
+            backwardDone = backward == null;
 
-        int nodesExplored = 0;
+            startNode = nodes.getOrCreate(startKey);
+            nodes.update(startNode, PathNodeStore.NO_NODE, 0, estimate(startKey, LAYER_WALK));
+            nodes.push(startNode);
+            closestNode = startNode;
+            minHCost = heuristic(startKey, target);
+        }
 
-        while (!openSet.isEmpty() && nodesExplored < MAX_NODES) {
-            PathNode current = openSet.poll();
-            nodesExplored++;
+        private void finish(PathResult result) {
+            if (result.found && blocks != null) {
+                result = new PathResult(stringPull(blocks, result.path), true, result.isPartial, result.nodesExplored, result.layer);
+            }
+            result.enclosed = enclosed;
+            if (layered && blocks != null) {
+                touchedSections = blocks.sectionKeys();
+            }
+            this.result = result;
+            release();
+        }
 
-            // Track closest node
-            if (current.hCost < minHCost) {
-                minHCost = current.hCost;
-                closestNode = current;
+        private void release() {
+            if (nodes != null) {
+                NODE_STORES.offer(nodes);
+                BLOCK_CACHES.offer(blocks);
+                nodes = null;
+                blocks = null;
+            }
+            if (backward != null) {
+                BACKWARD_STORES.offer(backward);
+                backward = null;
+                backwardDone = true;
             }
+        }
 
-            // Check if we reached the target (within 2 blocks)
-            if (current.pos.closerThan(target, 2.0)) {
-                return reconstructPathResult(current, nodesExplored);
+        /**
+         * Grow the backward frontier by one cell: every cell that walks into it
+         * joins, pointing at it. Breadth-first, so the walk back to the target
+         * is the one with the fewest steps.
+         */
+        private void expandBackward() {
+            if (backward.open.isEmpty()) {
+                // The walk region around the target is closed. Unless the mob is inside it,
+                // it has to break or build its way in.
+                backwardDone = true;
+                if (!backward.next.containsKey(startKey)) {
+                    enclosed = true;
+                    walkUnreachable = true;
+                }
+                return;
+            }
+            long pos = backward.open.dequeueLong();
+            int count = walkPredecessors(blocks, pos, backward.from, backward.cost);
+            for (int i = 0; i < count; i++) {
+                long from = backward.from[i];
+                if (!backward.next.containsKey(from)) {
+                    backward.next.put(from, pos);
+                    backward.open.enqueue(from);
+                }
             }
+            if (backward.next.size() >= BACKWARD_LIMIT) {
+                // Open ground around the target: keep what was found for meeting, but stop growing
+                backwardDone = true;
+            }
+        }
 
-            closedSet.add(current.pos);
+        /**
+         * Push every move out of the current node onto the open set.
+         */
+        private void expand(int current) {
+            long currentPos = nodes.pos(current);
+            if (expandJumpPoints(current, currentPos)) {
+                return;
+            }
+            // Cells a jump or drop only passes through are never broken by the follower (it breaks
+            // the next node), so layered searches don't count them as passable by breaking
+            boolean breakThrough = allowBreaking && !layered;
 
             // Explore neighbors
             // Standard moves (1 block, diagonals, etc provided by DIRECTIONS)
             for (int[] dir : DIRECTIONS) {
-                BlockPos neighborPos = current.pos.offset(dir[0], dir[1], dir[2]);
+                long neighborPos = BlockPos.offset(currentPos, dir[0], dir[1], dir[2]);
 
                 // 1. Try Standard Move (Walk / Climb)
-                if (isValidMove(level, current.pos, neighborPos, mob, allowBreaking, maxHardness)) {
-                    processNeighbor(current, neighborPos, level, openSet, closedSet, allNodes, target, mob, false,
-                            allowBreaking, null, maxHardness);
+                if (isValidMove(blocks, currentPos, neighborPos, allowBreaking, maxHardness)) {
+                    processNeighbor(current, neighborPos, false, false);
                 }
                 // 2. Try Drop Move (Walk off, fall to ground)
                 else {
                     // If neighbor is not valid move, maybe it's a hole we can drop down?
                     // Must be horizontal move (dy=0 or maybe -1) into Air
-                    int dy = neighborPos.getY() - current.pos.getY();
-                    if (dy <= 0) {
-                        if (isPassable(level, neighborPos, allowBreaking, maxHardness)
-                                && hasHeadroom(level, neighborPos, allowBreaking, maxHardness)) {
+                    if (dir[1] <= 0) {
+                        if (isPassable(blocks, neighborPos, breakThrough, maxHardness)
+                                && hasHeadroom(blocks, neighborPos, breakThrough, maxHardness)) {
                             // Scan down for ground
                             for (int i = 1; i <= 4; i++) {
-                                BlockPos landing = neighborPos.below(i);
-                                if (canStandAt(level, landing, allowBreaking, maxHardness)) {
+                                long landing = BlockPos.offset(neighborPos, 0, -i, 0);
+                                if (canStandAt(blocks, landing, allowBreaking, maxHardness)) {
                                     // Found safe landing!
                                     // Connect Current -> Landing.
                                     // Add cost based on distance
-                                    processNeighbor(current, landing, level, openSet, closedSet, allNodes, target, mob,
-                                            false, allowBreaking, null, maxHardness);
+                                    processNeighbor(current, landing, false, false);
                                     break; // Only register the first solid landing
                                 }
-                                BlockState s = level.getBlockState(landing);
-                                if (s.blocksMotion() && (!allowBreaking || s.getDestroySpeed(level, landing) < 0 || s.getDestroySpeed(level, landing) > maxHardness)) {
+                                if (blocks.is(landing, BlockClassCache.SOLID)
+                                        && (!allowBreaking || blocks.hardness(landing) < 0 || blocks.hardness(landing) > maxHardness)) {
                                     break; // Hit obstruction that we can't stand on (lava? slab?), stop.
                                 }
                             }
@@ -205,136 +434,446 @@ public class AStarPathfinder {
                 if (allowBuilding) {
                     // Bridging: Horizontal move, neighbor is air, neighbor.below() is air
                     // We place a block at neighbor.below()
-                    int dy = neighborPos.getY() - current.pos.getY();
-                    if (dy == 0) { // Horizontal
-                        if (isPassable(level, neighborPos, allowBreaking, maxHardness)
-                                && hasHeadroom(level, neighborPos, allowBreaking, maxHardness)) {
-                            BlockPos bridgeBlock = neighborPos.below();
-                            if (level.getBlockState(bridgeBlock).isAir()
-                                    || level.getBlockState(bridgeBlock).liquid()) {
+                    if (dir[1] == 0) { // Horizontal
+                        if (isPassable(blocks, neighborPos, allowBreaking, maxHardness)
+                                && hasHeadroom(blocks, neighborPos, allowBreaking, maxHardness)) {
+                            long bridgeBlock = BlockPos.offset(neighborPos, 0, -1, 0);
+                            if (blocks.is(bridgeBlock, BlockClassCache.AIR | BlockClassCache.LIQUID)) {
                                 // We can bridge here
-                                processNeighbor(current, neighborPos, level, openSet, closedSet, allNodes, target, mob,
-                                        false, allowBreaking, bridgeBlock, maxHardness);
+                                processNeighbor(current, neighborPos, false, true);
                             }
                         }
                     }
                 }
             }
-            
+        
             // 4. Try Building Moves (Pillar Up)
             if (allowBuilding) {
-                BlockPos up = current.pos.above();
-                if (isPassable(level, up, allowBreaking, maxHardness) && isPassable(level, up.above(), allowBreaking, maxHardness)) {
+                long up = BlockPos.offset(currentPos, 0, 1, 0);
+                if (isPassable(blocks, up, allowBreaking, maxHardness) && isPassable(blocks, BlockPos.offset(up, 0, 1, 0), allowBreaking, maxHardness)) {
                     // We can pillar up by placing a block at current.pos (jumping up)
                     // We arrive at 'up'. The block to place is 'current.pos'.
-                    processNeighbor(current, up, level, openSet, closedSet, allNodes, target, mob, true, allowBreaking, current.pos, maxHardness);
+                    processNeighbor(current, up, true, true);
                 }
             }
 
             // Jumping moves (2 blocks horizontal, over gaps)
             // Only cardinal directions for jumps to keep it simple
-            // If building is allowed, DISABLE 2-block jumps to force bridging (safer)
-            if (!allowBuilding) {
-                int[][] jumps = { { 2, 0, 0 }, { -2, 0, 0 }, { 0, 0, 2 }, { 0, 0, -2 } };
-                for (int[] jump : jumps) {
-                    BlockPos jumpTarget = current.pos.offset(jump[0], jump[1], jump[2]);
-                    BlockPos midPoint = current.pos.offset(jump[0] / 2, jump[1] / 2, jump[2] / 2);
-
-                    if (isValidJump(level, current.pos, midPoint, jumpTarget, mob, allowBreaking, maxHardness)) {
-                        processNeighbor(current, jumpTarget, level, openSet, closedSet, allNodes, target, mob, true,
-                                allowBreaking, null, maxHardness);
+            // If building is allowed, DISABLE 2-block jumps to force bridging (safer).
+            // Layered searches keep them: a jump is a walk move and bridging costs a layer penalty.
+            if (!allowBuilding || layered) {
+                for (int[] jump : JUMPS) {
+                    long jumpTarget = BlockPos.offset(currentPos, jump[0], jump[1], jump[2]);
+                    long midPoint = BlockPos.offset(currentPos, jump[0] / 2, jump[1] / 2, jump[2] / 2);
+
+                    if (isValidJump(blocks, midPoint, jumpTarget, breakThrough, maxHardness)) {
+                        processNeighbor(current, jumpTarget, true, false);
                     }
                 }
             }
         }
 
-        // Check if we found a partial path
-        if (closestNode != startNode && !closestNode.pos.equals(start)) {
-            return reconstructPathResult(closestNode, nodesExplored);
+        /**
+         * Jump point search on open flat ground (BlockClassCache.isOpenFlat), where
+         * walking on is the only useful move and every route between two cells costs
+         * the same whichever order its steps come in. A node reached by a flat move
+         * there only follows its parent's direction (plus the two straight parts of a
+         * diagonal), and skips ahead along it to the next cell that isn't open, is at
+         * the goal or in line with it, or ends a diagonal whose straight scans found one. Only those jump
+         * points get a node. Anywhere else, or with the target above or below, the
+         * node is expanded in full.
+         *
+         * @return false if the node needs a full expansion instead
+         */
+        private boolean expandJumpPoints(int current, long currentPos) {
+            int parent = nodes.parent(current);
+            if (parent == PathNodeStore.NO_NODE) {
+                return false;
+            }
+            long parentPos = nodes.pos(parent);
+            int y = BlockPos.getY(currentPos);
+            if (BlockPos.getY(parentPos) != y || Math.abs(y - target.getY()) > 1 || !blocks.isOpenFlat(currentPos)) {
+                return false;
+            }
+            // In line with the target the route may turn towards it
+            if (BlockPos.getX(currentPos) == target.getX() || BlockPos.getZ(currentPos) == target.getZ()) {
+                return false;
+            }
+            int dx = Integer.signum(BlockPos.getX(currentPos) - BlockPos.getX(parentPos));
+            int dz = Integer.signum(BlockPos.getZ(currentPos) - BlockPos.getZ(parentPos));
+            if (dx != 0 && dz != 0) {
+                jump(current, currentPos, dx, 0);
+                jump(current, currentPos, 0, dz);
+            }
+            jump(current, currentPos, dx, dz);
+            return true;
         }
 
-        return PathResult.notFound(nodesExplored);
-    }
-    
-    private static PathResult reconstructPathResult(PathNode goal, int nodesExplored) {
-        List<BlockPos> path = new ArrayList<>();
-        Map<BlockPos, BlockPos> buildActions = new HashMap<>();
-        PathNode current = goal;
+        private void jump(int current, long currentPos, int dx, int dz) {
+            boolean diagonal = dx != 0 && dz != 0;
+            long pos = currentPos;
+            for (int step = 1; step <= MAX_JUMP; step++) {
+                pos = BlockPos.offset(pos, dx, 0, dz);
+                if (step == MAX_JUMP || isJumpPoint(pos)
+                        || diagonal && (scanStraight(pos, dx, 0) || scanStraight(pos, 0, dz))) {
+                    // Every cell so far was open flat ground, so each step here was a plain walk
+                    relax(current, pos, nodes.gCost(current) + (diagonal ? step * Math.sqrt(2) : step),
+                            nodes.layer(current), (byte) 0);
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Whether a straight run from pos finds a jump point within MAX_JUMP.
+         */
+        private boolean scanStraight(long pos, int dx, int dz) {
+            for (int step = 1; step < MAX_JUMP; step++) {
+                pos = BlockPos.offset(pos, dx, 0, dz);
+                if (isJumpPoint(pos)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Crossing the target's row or column is a jump point too, or a diagonal run could overshoot the turn
+        private boolean isJumpPoint(long pos) {
+            return !blocks.isOpenFlat(pos) || BlockPos.getX(pos) == target.getX() || BlockPos.getZ(pos) == target.getZ()
+                    || distSqr(pos, target) < 4.0;
+        }
+
+        /**
+         * Relax the move onto neighborPos. A build move places a block directly below it.
+         */
+        private void processNeighbor(int current, long neighborPos, boolean isJump, boolean isBuild) {
+            int existing = nodes.find(neighborPos);
+            if (existing != PathNodeStore.NO_NODE && nodes.isClosed(existing)) {
+                return;
+            }
+
+            long currentPos = nodes.pos(current);
+
+            // Check if this movement is valid (Standard or Jump already validated)
+            // If building, we skip isValidMove because we are creating the valid condition
+            if (!isBuild && !isJump && !isValidMove(blocks, currentPos, neighborPos, allowBreaking, maxHardness)) {
+                return;
+            }
+
+            double moveCost = calculateMoveCost(blocks, currentPos, neighborPos, allowBreaking);
+            if (isJump)
+                moveCost += 0.5; // Jump penalty
+
+            if (isBuild) {
+                moveCost += 10.0; // Building penalty (make it expensive so they prefer walking)
+                // Pillar penalty
+                if (BlockPos.getY(neighborPos) > BlockPos.getY(currentPos)) {
+                    moveCost += 5.0; // Extra cost for pillaring up
+                }
+            }
+
+            int moveLayer = isBuild ? LAYER_BUILD : LAYER_WALK;
+            if (allowBreaking) {
+                moveLayer = Math.max(moveLayer, Math.max(breakLayer(blocks, neighborPos), breakLayer(blocks, above(neighborPos))));
+            }
+            if (layered) {
+                moveCost += LAYER_PENALTY[moveLayer];
+            }
+            int pathLayer = Math.max(nodes.layer(current), moveLayer);
+
+            int dy = BlockPos.getY(neighborPos) - BlockPos.getY(currentPos);
+            byte actions = 0;
+            if (isBuild) {
+                actions |= dy > 0 ? PackedPath.PLACE | PackedPath.PILLAR : PackedPath.PLACE;
+            } else if (isJump || dy > 0) {
+                actions |= PackedPath.JUMP;
+            }
+            if (dy < 0) {
+                actions |= PackedPath.DROP;
+            }
+            if (allowBreaking && (!blocks.is(neighborPos, BlockClassCache.PASSABLE) || !blocks.is(above(neighborPos), BlockClassCache.PASSABLE))) {
+                actions |= PackedPath.BREAK;
+            }
+
+            relax(current, neighborPos, nodes.gCost(current) + moveCost, pathLayer, actions);
+        }
+
+        private void relax(int current, long pos, double tentativeG, int pathLayer, byte actions) {
+            int node = nodes.getOrCreate(pos);
+            if (!nodes.isClosed(node) && tentativeG < nodes.gCost(node)) {
+                nodes.update(node, current, tentativeG, estimate(pos, pathLayer));
+                nodes.setLayer(node, pathLayer);
+                nodes.setFlags(node, actions);
 
-        while (current != null && path.size() < MAX_PATH_LENGTH) {
-            path.add(current.pos);
-            if (current.buildPos != null) {
-                buildActions.put(current.pos, current.buildPos);
+                // Insert, or decrease-key if already queued
+                nodes.push(node);
             }
-            current = current.parent;
         }
 
-        Collections.reverse(path);
-        return new PathResult(path, true, false, nodesExplored, buildActions);
+        /**
+         * Heuristic for a node reached with the given path layer.
+         */
+        private double estimate(long pos, int pathLayer) {
+            double h = heuristic(pos, target);
+            if (landmarks != null) {
+                h = Math.max(h, landmarks.lowerBound(pos) * HEURISTIC_WEIGHT);
+            }
+            if (walkUnreachable && pathLayer == LAYER_WALK) {
+                h += LAYER_PENALTY[LAYER_SOFT_BREAK];
+            }
+            return enclosed ? h * ENCLOSED_WEIGHT : h;
+        }
     }
 
-    private static void processNeighbor(PathNode current, BlockPos neighborPos, Level level,
-            PriorityQueue<PathNode> openSet,
-            Set<BlockPos> closedSet, Map<BlockPos, PathNode> allNodes, BlockPos target, Mob mob, boolean isJump,
-            boolean allowBreaking, BlockPos buildBlock, float maxHardness) {
-        if (closedSet.contains(neighborPos)) {
-            return;
+    /**
+     * Path to goal, followed by its walk to the target along next (a backward
+     * frontier's links, each cell to the one after it) if next is not null.
+     */
+    private static PathResult reconstructPathResult(PathNodeStore nodes, int goal, Long2LongOpenHashMap next, int nodesExplored) {
+        LongArrayList tail = new LongArrayList();
+        if (next != null) {
+            long pos = nodes.pos(goal);
+            for (long after = next.get(pos); after != pos && tail.size() < MAX_PATH_LENGTH; after = next.get(pos)) {
+                tail.add(after);
+                pos = after;
+            }
         }
+        int length = tail.size();
+        for (int node = goal; node != PathNodeStore.NO_NODE && length < MAX_PATH_LENGTH; node = nodes.parent(node)) {
+            length += runLength(nodes, node);
+        }
+        length = Math.min(length, MAX_PATH_LENGTH);
+
+        // Filled from the goal back, so a capped path keeps the end nearest the goal
+        long[] positions = new long[length];
+        byte[] flags = new byte[length];
+        int i = length - 1;
+        for (int t = tail.size() - 1; t >= 0 && i >= 0; t--) {
+            long pos = tail.getLong(t);
+            long previous = t > 0 ? tail.getLong(t - 1) : nodes.pos(goal);
+            int dy = BlockPos.getY(pos) - BlockPos.getY(previous);
+            positions[i] = pos;
+            flags[i--] = dy > 0 ? PackedPath.JUMP : dy < 0 ? PackedPath.DROP : 0;
+        }
+        for (int node = goal; i >= 0; node = nodes.parent(node)) {
+            long pos = nodes.pos(node);
+            positions[i] = pos;
+            flags[i--] = nodes.flags(node);
+            int run = runLength(nodes, node);
+            if (run > 1) {
+                long parentPos = nodes.pos(nodes.parent(node));
+                int dx = Integer.signum(BlockPos.getX(parentPos) - BlockPos.getX(pos));
+                int dz = Integer.signum(BlockPos.getZ(parentPos) - BlockPos.getZ(pos));
+                for (int step = 1; step < run && i >= 0; step++) {
+                    positions[i--] = BlockPos.offset(pos, dx * step, 0, dz * step);
+                }
+            }
+        }
+        return new PathResult(PackedPath.wrap(positions, flags), true, false, nodesExplored, nodes.layer(goal));
+    }
 
-        // Check if this movement is valid (Standard or Jump already validated)
-        // If building, we skip isValidMove because we are creating the valid condition
-        if (buildBlock == null && !isJump && !isValidMove(level, current.pos, neighborPos, mob, allowBreaking, maxHardness)) {
-            return;
+    /**
+     * Pooled storage for the backward frontier of a layered search.
+     */
+    private static final class Backward {
+        final LongArrayFIFOQueue open = new LongArrayFIFOQueue();
+        // Cell -> the next cell of its walk to the target; the target maps to itself
+        final Long2LongOpenHashMap next = new Long2LongOpenHashMap();
+        final long[] from = new long[64];
+        final double[] cost = new double[64];
+
+        void reset(long target) {
+            open.clear();
+            next.clear();
+            next.put(target, target);
+            open.enqueue(target);
         }
+    }
 
-        double moveCost = calculateMoveCost(level, current.pos, neighborPos, allowBreaking, maxHardness);
-        if (isJump)
-            moveCost += 0.5; // Jump penalty
+    /**
+     * String pulling: replace stretches of plain walking on one level with
+     * straight walks between waypoints, where the straight line stays on flat
+     * ground. Nodes with an action (jump, drop, break, place) and the node
+     * before each of them are kept, so the follower still lines up for them.
+     */
+    static PackedPath stringPull(BlockClassCache blocks, PackedPath path) {
+        int size = path.size();
+        if (size <= 2) {
+            return path;
+        }
+        long[] positions = new long[size];
+        byte[] flags = new byte[size];
+        int count = 0;
+        int anchor = 0;
+        positions[count] = path.pos(0);
+        flags[count++] = (byte) path.flags(0);
+        while (anchor < size - 1) {
+            long from = path.pos(anchor);
+            int next = anchor + 1;
+            for (int j = anchor + 2; j < size && j - anchor <= MAX_WAYPOINT_SPACING; j++) {
+                long to = path.pos(j);
+                if (path.flags(j) != 0 || path.flags(j - 1) != 0 || BlockPos.getY(to) != BlockPos.getY(from)
+                        || !canWalkStraight(blocks, from, to)) {
+                    break;
+                }
+                next = j;
+            }
+            positions[count] = path.pos(next);
+            flags[count++] = (byte) path.flags(next);
+            anchor = next;
+        }
+        if (count == size) {
+            return path;
+        }
+        return PackedPath.wrap(Arrays.copyOf(positions, count), Arrays.copyOf(flags, count));
+    }
 
-        if (buildBlock != null) {
-            moveCost += 10.0; // Building penalty (make it expensive so they prefer walking)
-            // Pillar penalty
-            if (neighborPos.getY() > current.pos.getY()) {
-                moveCost += 5.0; // Extra cost for pillaring up
+    /**
+     * Whether a mob can walk in a straight line between the centres of two
+     * blocks on the same level. Every block the line crosses must be flat
+     * ground; off the grid axes the mob's width can brush the blocks beside the
+     * line, so those must be open flat ground.
+     */
+    private static boolean canWalkStraight(BlockClassCache blocks, long from, long to) {
+        int x = BlockPos.getX(from);
+        int y = BlockPos.getY(from);
+        int z = BlockPos.getZ(from);
+        int nx = Math.abs(BlockPos.getX(to) - x);
+        int nz = Math.abs(BlockPos.getZ(to) - z);
+        int sx = Integer.signum(BlockPos.getX(to) - x);
+        int sz = Integer.signum(BlockPos.getZ(to) - z);
+        boolean straight = nx == 0 || nz == 0;
+        for (int ix = 0, iz = 0; ix < nx || iz < nz;) {
+            // Compare where the line leaves the current block: across an x edge, a z edge or the corner
+            int side = (1 + 2 * ix) * nz - (1 + 2 * iz) * nx;
+            if (side == 0) {
+                if (!blocks.isOpenFlat(BlockPos.asLong(x + sx, y, z)) || !blocks.isOpenFlat(BlockPos.asLong(x, y, z + sz))) {
+                    return false;
+                }
+                x += sx;
+                z += sz;
+                ix++;
+                iz++;
+            } else if (side < 0) {
+                x += sx;
+                ix++;
+            } else {
+                z += sz;
+                iz++;
+            }
+            long pos = BlockPos.asLong(x, y, z);
+            boolean last = ix == nx && iz == nz;
+            if (straight || last ? !blocks.isFlatGround(pos) : !blocks.isOpenFlat(pos)) {
+                return false;
             }
         }
+        return true;
+    }
 
-        double tentativeG = current.gCost + moveCost;
+    /**
+     * Cells a node adds to the path: itself, plus the cells skipped on the way
+     * from its parent if it is a jump point. Jump point links are the only flat
+     * moves longer than one step without the JUMP flag.
+     */
+    private static int runLength(PathNodeStore nodes, int node) {
+        int parent = nodes.parent(node);
+        if (parent == PathNodeStore.NO_NODE || (nodes.flags(node) & PackedPath.JUMP) != 0) {
+            return 1;
+        }
+        long pos = nodes.pos(node);
+        long parentPos = nodes.pos(parent);
+        if (BlockPos.getY(pos) != BlockPos.getY(parentPos)) {
+            return 1;
+        }
+        return Math.max(1, Math.max(Math.abs(BlockPos.getX(pos) - BlockPos.getX(parentPos)),
+                Math.abs(BlockPos.getZ(pos) - BlockPos.getZ(parentPos))));
+    }
+
+    /**
+     * Cells from which a mob can walk into 'to' in one move without breaking or
+     * building, with the cost of that move. Used to grow flow fields backwards
+     * from their root; covers the same walk and drop moves the search uses.
+     *
+     * @return the number of entries written to from and cost
+     */
+    static int walkPredecessors(BlockClassCache blocks, long to, long[] from, double[] cost) {
+        int count = 0;
+        for (int[] dir : DIRECTIONS) {
+            long pred = BlockPos.offset(to, -dir[0], -dir[1], -dir[2]);
+            if (isValidMove(blocks, pred, to, false, 0)) {
+                from[count] = pred;
+                cost[count++] = calculateMoveCost(blocks, pred, to, false);
+            }
+        }
 
-        PathNode neighborNode = allNodes.computeIfAbsent(neighborPos, PathNode::new);
+        // Drops: walk off a ledge horizontally and land on 'to' i blocks lower
+        for (int[] dir : DIRECTIONS) {
+            if (dir[1] != 0) {
+                continue;
+            }
+            for (int i = 2; i <= 4; i++) {
+                long pred = BlockPos.offset(to, -dir[0], i, -dir[2]);
+                long ledge = BlockPos.offset(to, 0, i, 0);
+                if (isValidDrop(blocks, pred, ledge, i) && isValidMove(blocks, pred, to, false, 0)) {
+                    from[count] = pred;
+                    cost[count++] = calculateMoveCost(blocks, pred, to, false);
+                }
+            }
+        }
+        return count;
+    }
 
-        if (tentativeG < neighborNode.gCost) {
-            neighborNode.parent = current;
-            neighborNode.gCost = tentativeG;
-            neighborNode.hCost = heuristic(neighborPos, target);
-            neighborNode.buildPos = buildBlock;
+    /**
+     * Same landing scan as the drop move in Search: step from 'from' into the
+     * open cell 'ledge' and fall until the first place to stand, 'depth' below it.
+     */
+    private static boolean isValidDrop(BlockClassCache blocks, long from, long ledge, int depth) {
+        if (!canStandAt(blocks, from, false, 0) || isValidMove(blocks, from, ledge, false, 0)
+                || !isPassable(blocks, ledge, false, 0) || !hasHeadroom(blocks, ledge, false, 0)) {
+            return false;
+        }
+        for (int i = 1; i < depth; i++) {
+            long landing = BlockPos.offset(ledge, 0, -i, 0);
+            if (canStandAt(blocks, landing, false, 0) || blocks.is(landing, BlockClassCache.SOLID)) {
+                return false;
+            }
+        }
+        return canStandAt(blocks, BlockPos.offset(ledge, 0, -depth, 0), false, 0);
+    }
 
-            // Remove and re-add to update priority
-            openSet.remove(neighborNode);
-            openSet.add(neighborNode);
+    /**
+     * Layer of the move needed to clear one block: walking through it, or breaking it.
+     */
+    private static int breakLayer(BlockClassCache blocks, long pos) {
+        if (blocks.is(pos, BlockClassCache.PASSABLE)) {
+            return LAYER_WALK;
         }
+        return blocks.hardness(pos) <= SOFT_HARDNESS ? LAYER_SOFT_BREAK : LAYER_HARD_BREAK;
     }
 
-    private static boolean isDanger(Level level, BlockPos pos) {
-        BlockState state = level.getBlockState(pos);
-        return state.is(Blocks.LAVA) || state.is(Blocks.FIRE) || state.is(Blocks.MAGMA_BLOCK);
+    private static boolean isDanger(BlockClassCache blocks, long pos) {
+        return blocks.is(pos, BlockClassCache.DANGER);
     }
 
-    private static boolean isValidJump(Level level, BlockPos start, BlockPos mid, BlockPos end, Mob mob,
+    private static boolean isValidJump(BlockClassCache blocks, long mid, long end,
             boolean allowBreaking, float maxHardness) {
-        if (!level.isInWorldBounds(end) || !level.hasChunkAt(end))
+        if (!blocks.is(end, BlockClassCache.LOADED))
             return false;
 
+        // All the cells checked below are next to the landing, so they're only worth a look near danger
+        boolean nearDanger = blocks.dangerDistance(end) <= 1;
+
         // 1. Landing must be safe (standable) AND not dangerous
-        if (!canStandAt(level, end, allowBreaking, maxHardness) || isDanger(level, end) || isDanger(level, end.below()))
+        if (!canStandAt(blocks, end, allowBreaking, maxHardness)
+                || nearDanger && (isDanger(blocks, end) || isDanger(blocks, below(end))))
             return false;
 
         // 2. Midpoint must be passable AIR (or partial) AND not dangerous
-        if (!isPassable(level, mid, allowBreaking, maxHardness) || !hasHeadroom(level, mid, allowBreaking, maxHardness))
+        if (!isPassable(blocks, mid, allowBreaking, maxHardness) || !hasHeadroom(blocks, mid, allowBreaking, maxHardness))
             return false;
             
         // Check if midpoint itself is dangerous (e.g. jumping through lava)
-        if (isDanger(level, mid) || isDanger(level, mid.above()))
+        if (nearDanger && (isDanger(blocks, mid) || isDanger(blocks, above(mid))))
             return false;
 
         return true;
@@ -343,23 +882,28 @@ public class AStarPathfinder {
     /**
      * Heuristic function (3D Euclidean distance with vertical penalty)
      */
-    private static double heuristic(BlockPos from, BlockPos to) {
-        double dx = from.getX() - to.getX();
-        double dy = from.getY() - to.getY();
-        double dz = from.getZ() - to.getZ();
-        // Add extra cost for vertical movement.
-        // Weighted A*: Multiply heuristic by 1.5 to prioritize speed/greediness over
-        // perfect efficiency.
-        return (Math.sqrt(dx * dx + dy * dy + dz * dz) + Math.abs(dy) * 0.5) * 1.5;
+    private static double heuristic(long from, BlockPos to) {
+        double dx = BlockPos.getX(from) - to.getX();
+        double dy = BlockPos.getY(from) - to.getY();
+        double dz = BlockPos.getZ(from) - to.getZ();
+        // Add extra cost for vertical movement
+        return (Math.sqrt(dx * dx + dy * dy + dz * dz) + Math.abs(dy) * 0.5) * HEURISTIC_WEIGHT;
+    }
+
+    private static double distSqr(long from, BlockPos to) {
+        double dx = BlockPos.getX(from) - to.getX();
+        double dy = BlockPos.getY(from) - to.getY();
+        double dz = BlockPos.getZ(from) - to.getZ();
+        return dx * dx + dy * dy + dz * dz;
     }
 
     /**
      * Calculate the cost of moving between two positions
      */
-    private static double calculateMoveCost(Level level, BlockPos from, BlockPos to, boolean allowBreaking, float maxHardness) {
-        double dx = from.getX() - to.getX();
-        double dy = from.getY() - to.getY();
-        double dz = from.getZ() - to.getZ();
+    private static double calculateMoveCost(BlockClassCache blocks, long from, long to, boolean allowBreaking) {
+        double dx = BlockPos.getX(from) - BlockPos.getX(to);
+        double dy = BlockPos.getY(from) - BlockPos.getY(to);
+        double dz = BlockPos.getZ(from) - BlockPos.getZ(to);
         double distance = Math.sqrt(dx * dx + dy * dy + dz * dz);
 
         // Penalize upward movement more (climbing is harder)
@@ -367,93 +911,66 @@ public class AStarPathfinder {
             distance += 1.0;
         }
 
-        // Avoid dangerous blocks
-        BlockState state = level.getBlockState(to);
-        if (state.is(Blocks.LAVA) || state.is(Blocks.FIRE) || state.is(Blocks.MAGMA_BLOCK)) {
+        // Avoid dangerous blocks. The danger distance says at once whether there is any next to 'to'.
+        int dangerDistance = blocks.dangerDistance(to);
+        if (dangerDistance == 0) {
             distance += 1000.0;
         }
-        BlockState below = level.getBlockState(to.below());
-        if (below.is(Blocks.LAVA) || below.is(Blocks.FIRE) || below.is(Blocks.MAGMA_BLOCK)) {
+        if (dangerDistance <= 1 && isDanger(blocks, below(to))) {
             distance += 500.0;
-        }
-
-        // Safety margin: Check neighbors for danger
-        for (int[] dir : DIRECTIONS) {
-            if (dir[1] == 0) { // Horizontal neighbors only
-                BlockPos neighbor = to.offset(dir[0], dir[1], dir[2]);
-                BlockState nState = level.getBlockState(neighbor);
-                if (nState.is(Blocks.LAVA) || nState.is(Blocks.FIRE) || nState.is(Blocks.MAGMA_BLOCK)) {
-                    distance += 200.0; // Penalty for walking next to danger
-                }
-            }
+        } else if (dangerDistance == 1) {
+            distance += 200.0; // Safety margin: penalty for walking next to danger
         }
 
         if (allowBreaking) {
             // Cost based on block hardness
             // Dramatically increased hardness penalty (5.0 -> 20.0) to force finding weak spots
-            if (!isPassable(level, to, false, maxHardness)) {
-                 if (MobPathManager.isPlannedBreach(to)) {
-                     distance += 2.0; // Swarm Magnet: Treat planned breaches as almost air
-                 } else {
-                     BlockState s = level.getBlockState(to);
-                     float hardness = s.getDestroySpeed(level, to);
-                     float breakCost = 10.0f + (hardness * 20.0f);
-                     float damage = MobBreakerHandler.getBlockDamage(to);
-                     distance += breakCost * (1.0f - damage);
-                     if (s.is(Blocks.COBBLESTONE)) distance += 500.0; // Don't break own pillars
-                 }
-            }
-            if (!isPassable(level, to.above(), false, maxHardness)) {
-                 if (MobPathManager.isPlannedBreach(to.above())) {
-                     distance += 2.0; // Swarm Magnet: Treat planned breaches as almost air
-                 } else {
-                     BlockState s = level.getBlockState(to.above());
-                     float hardness = s.getDestroySpeed(level, to.above());
-                     float breakCost = 10.0f + (hardness * 20.0f);
-                     float damage = MobBreakerHandler.getBlockDamage(to.above());
-                     distance += breakCost * (1.0f - damage);
-                     if (s.is(Blocks.COBBLESTONE)) distance += 500.0; // Don't break own pillars
-                 }
-            }
+            distance += breakCost(blocks, to);
+            distance += breakCost(blocks, above(to));
         }
 
         return distance;
     }
 
+    private static double breakCost(BlockClassCache blocks, long pos) {
+        if (blocks.is(pos, BlockClassCache.PASSABLE)) {
+            return 0;
+        }
+        BlockPos blockPos = BlockPos.of(pos);
+        if (MobPathManager.isPlannedBreach(blockPos)) {
+            return 2.0; // Swarm Magnet: Treat planned breaches as almost air
+        }
+        float breakCost = 10.0f + (blocks.hardness(pos) * 20.0f);
+        float damage = MobBreakerHandler.getBlockDamage(blockPos);
+        double cost = breakCost * (1.0f - damage);
+        if (blocks.is(pos, BlockClassCache.COBBLESTONE)) cost += 500.0; // Don't break own pillars
+        return cost;
+    }
+
     /**
      * Check if a movement from one position to another is valid
      */
-    @SuppressWarnings("deprecation")
-    private static boolean isValidMove(Level level, BlockPos from, BlockPos to, Mob mob, boolean allowBreaking, float maxHardness) {
-        // Check if the target position is within the world
-        if (!level.isInWorldBounds(to)) {
-            return false;
-        }
-
-        // Check chunk loading
-        if (!level.hasChunkAt(to)) {
+    private static boolean isValidMove(BlockClassCache blocks, long from, long to, boolean allowBreaking, float maxHardness) {
+        // Check if the target position is within the world and its chunk is loaded
+        if (!blocks.is(to, BlockClassCache.LOADED)) {
             return false;
         }
 
         // DANGER CHECK: Do not allow moving into dangerous blocks
-        BlockState toState = level.getBlockState(to);
-        if (toState.is(Blocks.LAVA) || toState.is(Blocks.FIRE) || toState.is(Blocks.MAGMA_BLOCK)) {
-            return false;
-        }
-        BlockState belowState = level.getBlockState(to.below());
-        if (belowState.is(Blocks.LAVA) || belowState.is(Blocks.FIRE) || belowState.is(Blocks.MAGMA_BLOCK)) {
+        boolean nearDanger = blocks.dangerDistance(to) <= 1;
+        if (nearDanger && (isDanger(blocks, to) || isDanger(blocks, below(to)))) {
             return false;
         }
 
         // Check if the mob can stand at the target position
-        if (!canStandAt(level, to, allowBreaking, maxHardness)) {
+        if (!canStandAt(blocks, to, allowBreaking, maxHardness)) {
             return false;
         }
 
         // Check vertical movement validity
-        int dy = to.getY() - from.getY();
-        int dx = to.getX() - from.getX();
-        int dz = to.getZ() - from.getZ();
+        int dy = BlockPos.getY(to) - BlockPos.getY(from);
+        int dx = BlockPos.getX(to) - BlockPos.getX(from);
+        int dz = BlockPos.getZ(to) - BlockPos.getZ(from);
 
         if (dy < -5) {
             // Don't pathfind through huge drops (fall damage > 5 blocks)
@@ -461,8 +978,7 @@ public class AStarPathfinder {
         }
 
         // Fix for "Floating Paths" & Dropping Logic:
-        BlockState toBelow = level.getBlockState(to.below());
-        boolean isMarkedSolid = toBelow.blocksMotion() || toBelow.liquid();
+        boolean isMarkedSolid = blocks.is(below(to), BlockClassCache.FLOOR);
 
         if (!isMarkedSolid) {
             // Target has no floor.
@@ -471,7 +987,7 @@ public class AStarPathfinder {
             boolean isVerticalClimb = (dx == 0 && dz == 0 && dy == 1);
             if (isVerticalClimb) {
                 // Must have wall support
-                if (!isNextToWall(level, to))
+                if (!isNextToWall(blocks, to))
                     return false;
             } else {
                 // Case 2: Dropping / Jumping off ledge
@@ -479,9 +995,7 @@ public class AStarPathfinder {
                 int dropDist = 0;
                 boolean foundGround = false;
                 for (int i = 1; i <= 5; i++) {
-                    BlockPos belowPos = to.below(i);
-                    BlockState s = level.getBlockState(belowPos);
-                    if (s.blocksMotion() || s.liquid()) {
+                    if (blocks.is(BlockPos.offset(to, 0, -i, 0), BlockClassCache.FLOOR)) {
                         dropDist = i;
                         foundGround = true;
                         break;
@@ -500,7 +1014,7 @@ public class AStarPathfinder {
         }
 
         // Check if there's enough headroom at both positions
-        if (!hasHeadroom(level, from, allowBreaking, maxHardness) || !hasHeadroom(level, to, allowBreaking, maxHardness)) {
+        if (!hasHeadroom(blocks, from, allowBreaking, maxHardness) || !hasHeadroom(blocks, to, allowBreaking, maxHardness)) {
             return false;
         }
 
@@ -509,16 +1023,16 @@ public class AStarPathfinder {
             // Diagonal moves need corner checks
             if (Math.abs(dx) + Math.abs(dz) > 1) {
                 // Check both intermediate positions
-                BlockPos check1 = from.offset(dx, 0, 0);
-                BlockPos check2 = from.offset(0, 0, dz);
-                if (!isPassable(level, check1, allowBreaking, maxHardness) || !isPassable(level, check2, allowBreaking, maxHardness)) {
+                long check1 = BlockPos.offset(from, dx, 0, 0);
+                long check2 = BlockPos.offset(from, 0, 0, dz);
+                if (!isPassable(blocks, check1, allowBreaking, maxHardness) || !isPassable(blocks, check2, allowBreaking, maxHardness)) {
                     return false;
                 }
                 
                 // CRITICAL: Corner Cutting Safety
                 // If either corner is dangerous (Lava/Fire), we CANNOT move diagonally.
                 // Even if "passable" (liquid), it's deadly to clip it.
-                if (isDanger(level, check1) || isDanger(level, check2)) {
+                if (nearDanger && (isDanger(blocks, check1) || isDanger(blocks, check2))) {
                     return false;
                 }
             }
@@ -526,9 +1040,8 @@ public class AStarPathfinder {
 
         // For jumping up, check if there's a block to jump from or we are climbing
         if (dy == 1) {
-            BlockState below = level.getBlockState(from.below());
             // If strictly vertical OR jumping, allow if grounded OR climbing
-            if (!below.blocksMotion() && !isNextToWall(level, from)) {
+            if (!blocks.is(below(from), BlockClassCache.SOLID) && !isNextToWall(blocks, from)) {
                 return false;
             }
         }
@@ -540,81 +1053,60 @@ public class AStarPathfinder {
      * Check if a mob can stand at a position (solid ground below, passable at feet
      * and head level, OR climbing support)
      */
-    @SuppressWarnings("deprecation")
-    private static boolean canStandAt(Level level, BlockPos pos, boolean allowBreaking, float maxHardness) {
+    private static boolean canStandAt(BlockClassCache blocks, long pos, boolean allowBreaking, float maxHardness) {
         // Need passable space at feet and head
-        if (!isPassable(level, pos, allowBreaking, maxHardness) || !isPassable(level, pos.above(), allowBreaking, maxHardness)) {
+        if (!hasHeadroom(blocks, pos, allowBreaking, maxHardness)) {
             return false;
         }
 
-        BlockState below = level.getBlockState(pos.below());
-
         // Need solid ground below OR be next to a wall (climbing)
-        if (below.blocksMotion() || below.liquid()) {
+        if (blocks.is(below(pos), BlockClassCache.FLOOR)) {
             return true;
         }
 
-        return isNextToWall(level, pos);
+        return isNextToWall(blocks, pos);
     }
 
     /**
      * Check if position is adjacent to a solid wall (for climbing)
      */
-    @SuppressWarnings("deprecation")
-    private static boolean isNextToWall(Level level, BlockPos pos) {
-        for (int[] dir : DIRECTIONS) {
-            // Only check horizontal neighbors (first 4 directions)
-            if (dir[2] == 0 && (dir[0] != 0 || dir[1] != 0) && dir[1] == 0) {
-                // We only want the 4 cardinals
-            }
-        }
-
-        // Manual check for efficiency and correctness
-        if (isClimbableNeighbor(level, pos.north()))
-            return true;
-        if (isClimbableNeighbor(level, pos.south()))
-            return true;
-        if (isClimbableNeighbor(level, pos.east()))
-            return true;
-        if (isClimbableNeighbor(level, pos.west()))
-            return true;
-
-        return false;
-    }
-
-    private static boolean isClimbableNeighbor(Level level, BlockPos pos) {
-        if (!level.getBlockState(pos).blocksMotion()) {
-            return false;
-        }
-        return level.getBlockState(pos.above()).blocksMotion() || level.getBlockState(pos.below()).blocksMotion();
+    private static boolean isNextToWall(BlockClassCache blocks, long pos) {
+        return blocks.isClimbable(BlockPos.offset(pos, 0, 0, -1))
+                || blocks.isClimbable(BlockPos.offset(pos, 0, 0, 1))
+                || blocks.isClimbable(BlockPos.offset(pos, 1, 0, 0))
+                || blocks.isClimbable(BlockPos.offset(pos, -1, 0, 0));
     }
 
     /**
      * Check if there's headroom (2 blocks of air)
      */
-    private static boolean hasHeadroom(Level level, BlockPos pos, boolean allowBreaking, float maxHardness) {
-        return isPassable(level, pos, allowBreaking, maxHardness) && isPassable(level, pos.above(), allowBreaking, maxHardness);
+    private static boolean hasHeadroom(BlockClassCache blocks, long pos, boolean allowBreaking, float maxHardness) {
+        return isPassable(blocks, pos, allowBreaking, maxHardness) && isPassable(blocks, above(pos), allowBreaking, maxHardness);
     }
 
     /**
      * Check if a block is passable
      */
-    @SuppressWarnings("deprecation")
-    private static boolean isPassable(Level level, BlockPos pos, boolean allowBreaking, float maxHardness) {
-        BlockState state = level.getBlockState(pos);
-        if (state.isPathfindable(PathComputationType.LAND) || !state.blocksMotion()) {
+    private static boolean isPassable(BlockClassCache blocks, long pos, boolean allowBreaking, float maxHardness) {
+        if (blocks.is(pos, BlockClassCache.PASSABLE)) {
             return true;
         }
-        return allowBreaking && isBreakable(level, pos, maxHardness);
+        return allowBreaking && isBreakable(blocks, pos, maxHardness);
+    }
+
+    private static boolean isBreakable(BlockClassCache blocks, long pos, float maxHardness) {
+        if (blocks.is(pos, BlockClassCache.AIR)) {
+            return false;
+        }
+        float hardness = blocks.hardness(pos);
+        return hardness >= 0 && hardness <= maxHardness;
     }
 
-    // Check if a block is passable in normal mode (helper)
-    private static boolean isPassable(Level level, BlockPos pos) {
-        return isPassable(level, pos, false, Float.MAX_VALUE);
+    private static long above(long pos) {
+        return BlockPos.offset(pos, 0, 1, 0);
     }
 
-    private static boolean isBreakable(Level level, BlockPos pos, float maxHardness) {
-        BlockState state = level.getBlockState(pos);
-        return !state.isAir() && state.getDestroySpeed(level, pos) >= 0 && state.getDestroySpeed(level, pos) <= maxHardness;
+    private static long below(long pos) {
+        return BlockPos.offset(pos, 0, -1, 0);
     }
 }
@@ -0,0 +1,353 @@
+package com.example.ai;
+
+import com.example.ChallengeMod;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.entity.Mob;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs mob path searches on a small pool of background threads.
+ * The server thread captures a NavSnapshot and queues a job; every tick the
+ * pending jobs share a fixed budget of pool time, run as slices on the pool,
+ * most urgent first. A search that uses up its slice is parked with its open
+ * and closed sets and resumes next tick. The finished result is picked up by
+ * MobPathManager.
+ */
+public final class AsyncPathfinder {
+
+    // Leave most cores to the server and chunk generation
+    private static final int THREADS = Math.max(1, Math.min(3, Runtime.getRuntime().availableProcessors() / 2));
+
+    // Pool time per tick, shared by all pending jobs
+    private static final long BUDGET_MICROS_PER_TICK = 16000;
+    // Smallest slice (in work units, about one node expansion each) worth scheduling;
+    // with more jobs than the budget allows, the most urgent ones go first
+    private static final int MIN_SLICE = 1000;
+    // Priority a job gains per tick it waits, so every job gets a slice eventually
+    private static final double AGING_PER_TICK = 0.05;
+    // Priority of background builds (flow fields, landmark tables)
+    static final double BACKGROUND_PRIORITY = 1.0;
+    // Ticks between queue statistics in the debug log
+    private static final int STATS_INTERVAL = 200;
+    // Node cap per search. Higher than AStarPathfinder.MAX_NODES since the work is sliced.
+    private static final int MAX_NODES_PER_SEARCH = 12000;
+    // Long-range queries refine only this much of the portal plan with block-level A*
+    private static final int LEG_LENGTH = 40;
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "ChallengeCraft Pathfinder #" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    // Server thread only
+    private static final List<QueuedJob> jobs = new ArrayList<>();
+    private static CompletableFuture<Void> runningSlices = CompletableFuture.completedFuture(null);
+    private static long tickCount = 0;
+    private static final QueueStats stats = new QueueStats();
+
+    // Measured cost of a work unit, from slices that used their whole budget
+    private static double nanosPerUnit = 1000.0;
+    private static final AtomicLong sampledNanos = new AtomicLong();
+    private static final AtomicLong sampledUnits = new AtomicLong();
+
+    private AsyncPathfinder() {
+    }
+
+    /**
+     * Background work that is run in budgeted slices. run() is never called
+     * concurrently for one job, but successive slices may run on different threads.
+     */
+    interface SlicedJob {
+        // Do up to budget units of work (node expansions)
+        void run(int budget);
+
+        boolean isFinished();
+
+        // Called on the server thread, with no slice running, when a finished job is dropped
+        // (finished normally or cancelled)
+        void abandon();
+    }
+
+    public static void register() {
+        ServerTickEvents.END_SERVER_TICK.register(server -> tick());
+    }
+
+    /**
+     * Queue a job to share the per-tick budget. Server thread only.
+     */
+    static void schedule(SlicedJob job) {
+        schedule(job, BACKGROUND_PRIORITY);
+    }
+
+    /**
+     * Queue a job with the given priority; higher runs first. Server thread only.
+     */
+    static void schedule(SlicedJob job, double priority) {
+        jobs.add(new QueuedJob(job, priority, tickCount));
+    }
+
+    /**
+     * Urgency of a mob's path search, roughly 0 to 6: nearer targets, older paths and stuck mobs first.
+     */
+    public static double pathPriority(double distance, long ticksSinceLastPath, boolean stuck) {
+        double near = 2.0 / (1.0 + distance / 16.0);
+        double stale = Math.min(2.0, ticksSinceLastPath / 100.0);
+        return near + stale + (stuck ? 2.0 : 0.0);
+    }
+
+    /**
+     * Snapshot the area around the mob and its target and queue a layered
+     * search for it. Long-range queries are first planned over the PortalGraph
+     * and the search then only covers the next leg. walkUnreachable is a hint
+     * that the target is known not to be reachable on foot; landmarks, if not
+     * null, is the target's landmark table. priority is from pathPriority().
+     * Server thread only.
+     */
+    public static CompletableFuture<MobPathManager.SearchOutcome> submit(Mob mob, BlockPos target, boolean longRange, boolean walkUnreachable,
+            Landmarks.Table landmarks, double priority) {
+        BlockPos start = mob.blockPosition();
+        // Long-range results depend on the portal graph too, so only direct searches are memoized
+        SearchCache.Key cacheKey = longRange ? null : new SearchCache.Key(mob.level().dimension(), start, target, walkUnreachable);
+        if (cacheKey != null) {
+            MobPathManager.SearchOutcome remembered = SearchCache.lookup(mob.level(), cacheKey);
+            if (remembered != null) {
+                return CompletableFuture.completedFuture(remembered);
+            }
+        }
+        Landmarks.Estimator bounds = landmarks != null && !longRange ? landmarks.towards(start, target) : null;
+        NavSnapshot snapshot;
+        if (bounds != null) {
+            // Landmark bounds only hold for routes inside the table's box
+            snapshot = landmarks.capture(mob.level());
+        } else {
+            snapshot = longRange
+                    ? NavSnapshot.captureWide(mob.level(), start, target, LEG_LENGTH)
+                    : NavSnapshot.capture(mob.level(), start, target);
+        }
+        PathJob job = new PathJob(snapshot, start, target, longRange, walkUnreachable, bounds, cacheKey);
+        schedule(job, priority);
+        return job.future;
+    }
+
+    /**
+     * Hand out this tick's budget. If last tick's slices are still running, the
+     * pool is saturated and this tick is skipped rather than stacking more work.
+     */
+    private static void tick() {
+        tickCount++;
+        stats.sampleDepth(jobs.size());
+        if (tickCount % STATS_INTERVAL == 0) {
+            if (ChallengeMod.isAStarDebugEnabled()) {
+                ChallengeMod.LOGGER.info("[A*] Scheduler: {}, {} ns/unit; {}", stats, Math.round(nanosPerUnit), SearchCache.stats());
+            }
+            stats.reset();
+            SearchCache.resetStats();
+        }
+        if (!runningSlices.isDone()) {
+            return;
+        }
+        calibrate();
+
+        // No slice is running, so finished and cancelled jobs can release their storage here
+        jobs.removeIf(queued -> {
+            if (queued.job.isFinished()) {
+                queued.job.abandon();
+                stats.sampleLatency(tickCount - queued.queuedTick);
+                return true;
+            }
+            return false;
+        });
+        if (jobs.isEmpty()) {
+            return;
+        }
+
+        long budget = Math.max(MIN_SLICE, (long) (BUDGET_MICROS_PER_TICK * 1000 / nanosPerUnit));
+        int count = (int) Math.min(jobs.size(), budget / MIN_SLICE);
+        int slice = (int) (budget / count);
+        jobs.sort(Comparator.comparingDouble(queued -> -queued.effectivePriority(tickCount)));
+        CompletableFuture<?>[] slices = new CompletableFuture<?>[count];
+        for (int i = 0; i < count; i++) {
+            SlicedJob job = jobs.get(i).job;
+            slices[i] = CompletableFuture.runAsync(() -> runSlice(job, slice), executor);
+        }
+        runningSlices = CompletableFuture.allOf(slices);
+    }
+
+    private static void runSlice(SlicedJob job, int slice) {
+        long start = System.nanoTime();
+        job.run(slice);
+        if (!job.isFinished()) {
+            // Only slices that used their whole budget say how long a unit takes
+            sampledNanos.addAndGet(System.nanoTime() - start);
+            sampledUnits.addAndGet(slice);
+        }
+    }
+
+    /**
+     * Fold the last slices' timings into nanosPerUnit. No slice is running.
+     */
+    private static void calibrate() {
+        long units = sampledUnits.getAndSet(0);
+        long nanos = sampledNanos.getAndSet(0);
+        if (units > 0) {
+            nanosPerUnit = nanosPerUnit * 0.8 + (double) nanos / units * 0.2;
+        }
+    }
+
+    /**
+     * A job in the queue, with when and how urgently it was queued.
+     */
+    private static final class QueuedJob {
+        final SlicedJob job;
+        final double priority;
+        final long queuedTick;
+
+        QueuedJob(SlicedJob job, double priority, long queuedTick) {
+            this.job = job;
+            this.priority = priority;
+            this.queuedTick = queuedTick;
+        }
+
+        double effectivePriority(long now) {
+            return priority + (now - queuedTick) * AGING_PER_TICK;
+        }
+    }
+
+    /**
+     * Queue depth and queued-to-finished latency (in ticks) over one stats interval.
+     */
+    private static final class QueueStats {
+        long depthTotal;
+        int depthMax;
+        int depthSamples;
+        long latencyTotal;
+        long latencyMax;
+        int finished;
+
+        void sampleDepth(int depth) {
+            depthTotal += depth;
+            depthMax = Math.max(depthMax, depth);
+            depthSamples++;
+        }
+
+        void sampleLatency(long ticks) {
+            latencyTotal += ticks;
+            latencyMax = Math.max(latencyMax, ticks);
+            finished++;
+        }
+
+        void reset() {
+            depthTotal = 0;
+            depthMax = 0;
+            depthSamples = 0;
+            latencyTotal = 0;
+            latencyMax = 0;
+            finished = 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("depth avg %.1f max %d, %d finished, wait avg %.1f max %d ticks",
+                    depthSamples == 0 ? 0.0 : (double) depthTotal / depthSamples, depthMax, finished,
+                    finished == 0 ? 0.0 : (double) latencyTotal / finished, latencyMax);
+        }
+    }
+
+    /**
+     * The layered search for one mob, resumable between slices.
+     */
+    private static final class PathJob implements SlicedJob {
+        final NavSnapshot snapshot;
+        final BlockPos start;
+        final BlockPos target;
+        final boolean walkUnreachable;
+        final Landmarks.Estimator landmarks;
+        // Where to remember the outcome, or null
+        final SearchCache.Key cacheKey;
+        // Break state epochs when the job was queued, see SearchCache.store(); break costs are read live
+        final int breakStateEpoch = SearchCache.breakStateEpoch();
+        final int breachExpiryEpoch = MobPathManager.breachExpiryEpoch();
+        final CompletableFuture<MobPathManager.SearchOutcome> future = new CompletableFuture<>();
+        long[] touchedSections;
+
+        // Long-range jobs start with the portal plan; legGoal is what the search goes to
+        boolean needsPlan;
+        BlockPos legGoal;
+        AStarPathfinder.Search search;
+
+        PathJob(NavSnapshot snapshot, BlockPos start, BlockPos target, boolean longRange, boolean walkUnreachable,
+                Landmarks.Estimator landmarks, SearchCache.Key cacheKey) {
+            this.snapshot = snapshot;
+            this.cacheKey = cacheKey;
+            this.start = start;
+            this.target = target;
+            this.walkUnreachable = walkUnreachable;
+            this.landmarks = landmarks;
+            this.needsPlan = longRange;
+            this.legGoal = target;
+        }
+
+        @Override
+        public void run(int budget) {
+            try {
+                if (needsPlan) {
+                    // The abstract search is small, so it runs whole and is charged to this slice
+                    needsPlan = false;
+                    PortalGraph.Plan plan = PortalGraph.plan(snapshot, start, target);
+                    legGoal = plan != null ? plan.nextLeg(start, LEG_LENGTH) : PortalGraph.towards(start, target, LEG_LENGTH);
+                    budget -= plan != null ? plan.expansions : 0;
+                }
+                if (budget <= 0) {
+                    return;
+                }
+                if (search == null) {
+                    search = AStarPathfinder.Search.layered(snapshot, start, legGoal, MAX_NODES_PER_SEARCH, walkUnreachable, landmarks);
+                }
+                search.step(budget);
+                if (!search.isDone()) {
+                    return; // Out of budget: park until next tick
+                }
+
+                AStarPathfinder.PathResult result = search.result();
+                touchedSections = search.touchedSections();
+                search = null;
+                future.complete(new MobPathManager.SearchOutcome(result, MobPathManager.STRATEGY_NAMES[result.layer], target,
+                        legGoal.equals(target) ? null : legGoal, snapshot.version()));
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public boolean isFinished() {
+            return future.isDone();
+        }
+
+        @Override
+        public void abandon() {
+            if (search != null) {
+                search.abandon();
+                search = null;
+            }
+            if (cacheKey != null && touchedSections != null && future.isDone() && !future.isCompletedExceptionally()) {
+                MobPathManager.SearchOutcome outcome = future.join();
+                SectionVersions dependencies = SectionVersions.ofSections(touchedSections, snapshot.version());
+                SearchCache.store(cacheKey, outcome, dependencies, breakStateEpoch, breachExpiryEpoch);
+                FailedSearches.record(cacheKey.dimension, start, target, outcome.result, dependencies);
+            }
+        }
+    }
+}
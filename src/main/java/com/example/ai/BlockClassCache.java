@@ -0,0 +1,243 @@
+package com.example.ai;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+
+import java.util.Arrays;
+
+/**
+ * Per-search memo of block classifications.
+ * Each position is looked up in the search's NavSnapshot once and expanded to a
+ * small bitfield (plus its hardness); every pathfinding predicate reads from that.
+ * Like PathNodeStore, caches are pooled (AStarPathfinder's BLOCK_CACHES):
+ * a search takes one for its lifetime and resets it in O(1) first, because
+ * blocks may change between two searches.
+ */
+public final class BlockClassCache {
+
+    // Position is inside the world and its chunk is loaded
+    public static final int LOADED = 1;
+    // Mobs can move through it (pathfindable or no collision)
+    public static final int PASSABLE = 1 << 1;
+    // Has collision (blocksMotion)
+    public static final int SOLID = 1 << 2;
+    public static final int LIQUID = 1 << 3;
+    // Solid or liquid: something that can be stood on
+    public static final int FLOOR = 1 << 4;
+    // Lava, fire or magma
+    public static final int DANGER = 1 << 5;
+    public static final int AIR = 1 << 6;
+    // Cobblestone (mob-built pillars)
+    public static final int COBBLESTONE = 1 << 7;
+    // Solid with a solid block above or below: can be climbed along
+    public static final int CLIMBABLE = 1 << 8;
+    private static final int CLIMB_CHECKED = 1 << 9;
+    // Open flat ground, see isOpenFlat()
+    private static final int OPEN_FLAT = 1 << 10;
+    private static final int OPEN_CHECKED = 1 << 11;
+    // Danger distance (see NavigabilityIndex.dangerDistance) kept above the flags
+    private static final int DANGER_DISTANCE_SHIFT = 12;
+    private static final int NO_DANGER_NEAR = NavigabilityIndex.FAR_FROM_DANGER << DANGER_DISTANCE_SHIFT;
+
+    private static final int INITIAL_CAPACITY = 1 << 14;
+
+    private long[] keys;
+    private int[] flags;
+    private float[] hardness;
+    private int[] stamps;
+    private int mask;
+    private int count;
+    private int generation = 1;
+
+    private NavSnapshot snapshot;
+
+    public BlockClassCache() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Start a new search against the given snapshot. O(1).
+     */
+    public void reset(NavSnapshot snapshot) {
+        this.snapshot = snapshot;
+        count = 0;
+        generation++;
+        if (generation == 0) {
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+    }
+
+    public boolean is(long pos, int flag) {
+        // Resolve the slot first: a miss may grow (and replace) the arrays
+        int slot = slot(pos);
+        return (flags[slot] & flag) != 0;
+    }
+
+    public float hardness(long pos) {
+        int slot = slot(pos);
+        return hardness[slot];
+    }
+
+    /**
+     * Solid block with a solid block above or below it (a wall a mob can climb).
+     */
+    public boolean isClimbable(long pos) {
+        int slot = slot(pos);
+        int f = flags[slot];
+        if ((f & CLIMB_CHECKED) == 0) {
+            boolean climbable = (f & SOLID) != 0
+                    && (is(BlockPos.offset(pos, 0, 1, 0), SOLID) || is(BlockPos.offset(pos, 0, -1, 0), SOLID));
+            // The lookups above may have grown the table, so find the slot again
+            slot = slot(pos);
+            flags[slot] |= CLIMB_CHECKED | (climbable ? CLIMBABLE : 0);
+            f = flags[slot];
+        }
+        return (f & CLIMBABLE) != 0;
+    }
+
+    /**
+     * Open flat ground: the block and its eight horizontal neighbours can all be
+     * stood on (floor below, feet and head passable) with no danger next to them.
+     */
+    public boolean isOpenFlat(long pos) {
+        int slot = slot(pos);
+        int f = flags[slot];
+        if ((f & OPEN_CHECKED) == 0) {
+            boolean open = true;
+            for (int dx = -1; dx <= 1 && open; dx++) {
+                for (int dz = -1; dz <= 1 && open; dz++) {
+                    open = isFlatGround(BlockPos.offset(pos, dx, 0, dz));
+                }
+            }
+            // The lookups above may have grown the table, so find the slot again
+            slot = slot(pos);
+            flags[slot] |= OPEN_CHECKED | (open ? OPEN_FLAT : 0);
+            f = flags[slot];
+        }
+        return (f & OPEN_FLAT) != 0;
+    }
+
+    /**
+     * The block can be stood on (floor below, feet and head passable) with no danger next to it.
+     */
+    public boolean isFlatGround(long pos) {
+        return is(pos, PASSABLE) && dangerDistance(pos) > 1
+                && is(BlockPos.offset(pos, 0, 1, 0), PASSABLE) && is(BlockPos.offset(pos, 0, -1, 0), FLOOR);
+    }
+
+    /**
+     * Chebyshev distance to the nearest danger block, capped at
+     * NavigabilityIndex.FAR_FROM_DANGER. 0 means the block is dangerous itself.
+     */
+    public int dangerDistance(long pos) {
+        int slot = slot(pos);
+        return (flags[slot] >>> DANGER_DISTANCE_SHIFT) & 3;
+    }
+
+    /**
+     * Find (or compute) the table slot for a position.
+     */
+    private int slot(long pos) {
+        int slot = mix(pos) & mask;
+        while (stamps[slot] == generation) {
+            if (keys[slot] == pos) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if ((count + 1) * 2 > mask) {
+            rehash((mask + 1) * 2);
+            return slot(pos);
+        }
+
+        keys[slot] = pos;
+        stamps[slot] = generation;
+        classify(slot, pos);
+        count++;
+        return slot;
+    }
+
+    private void classify(int slot, long pos) {
+        if (snapshot.isOutsideBuildHeight(BlockPos.getY(pos))) {
+            // Outside the build height everything reads as void air
+            flags[slot] = PASSABLE | AIR | NO_DANGER_NEAR;
+            hardness[slot] = 0;
+            return;
+        }
+        int code = snapshot.query(pos);
+        if (code == NavigabilityIndex.UNLOADED) {
+            // Never path into (or force-load) unloaded chunks: treat as unbreakable wall
+            flags[slot] = SOLID | NO_DANGER_NEAR;
+            hardness[slot] = -1;
+            return;
+        }
+
+        int f = NavigabilityIndex.flags(code) | LOADED
+                | NavigabilityIndex.dangerDistance(code) << DANGER_DISTANCE_SHIFT;
+        if ((f & (SOLID | LIQUID)) != 0) {
+            f |= FLOOR;
+        }
+        flags[slot] = f;
+        hardness[slot] = NavigabilityIndex.hardness(code);
+    }
+
+    /**
+     * Keys (SectionPos.asLong) of the sections holding every block looked up since the last reset.
+     */
+    public long[] sectionKeys() {
+        LongOpenHashSet sections = new LongOpenHashSet();
+        for (int slot = 0; slot <= mask; slot++) {
+            if (stamps[slot] == generation) {
+                long pos = keys[slot];
+                sections.add(SectionPos.asLong(SectionPos.blockToSectionCoord(BlockPos.getX(pos)),
+                        SectionPos.blockToSectionCoord(BlockPos.getY(pos)), SectionPos.blockToSectionCoord(BlockPos.getZ(pos))));
+            }
+        }
+        return sections.toLongArray();
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        flags = new int[capacity];
+        hardness = new float[capacity];
+        stamps = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldFlags = flags;
+        float[] oldHardness = hardness;
+        int[] oldStamps = stamps;
+        int oldGeneration = generation;
+
+        allocate(capacity);
+        generation = 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldStamps[i] != oldGeneration) {
+                continue;
+            }
+            int slot = mix(oldKeys[i]) & mask;
+            while (stamps[slot] == generation) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            flags[slot] = oldFlags[i];
+            hardness[slot] = oldHardness[i];
+            stamps[slot] = generation;
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
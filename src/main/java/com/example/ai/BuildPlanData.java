@@ -13,7 +13,7 @@ import java.util.concurrent.ConcurrentHashMap;
 public class BuildPlanData {
 
     // Map of mob UUID to their current build plan (blocks to place)
-    private static final Map<UUID, List<BlockPos>> mobBuildPlans = new ConcurrentHashMap<>();
+    private static final Map<UUID, PackedPath> mobBuildPlans = new ConcurrentHashMap<>();
 
     // Timestamp for each plan (for cleanup)
     private static final Map<UUID, Long> planTimestamps = new ConcurrentHashMap<>();
@@ -22,17 +22,24 @@ public class BuildPlanData {
     private static final long PLAN_EXPIRY_MS = 5000;
 
     /**
-     * Set the build plan for a mob
+     * Set the build plan for a mob: the PLACE nodes of a path
      */
-    public static void setBuildPlan(UUID mobId, List<BlockPos> plan) {
-        mobBuildPlans.put(mobId, new ArrayList<>(plan));
+    public static void setBuildPlan(UUID mobId, PackedPath plan) {
+        mobBuildPlans.put(mobId, plan); // Immutable, so shared rather than copied
         planTimestamps.put(mobId, System.currentTimeMillis());
     }
 
+    /**
+     * Set the build plan for a mob from a list of blocks to place
+     */
+    public static void setBuildPlan(UUID mobId, List<BlockPos> blocks) {
+        setBuildPlan(mobId, PackedPath.placements(blocks));
+    }
+
     /**
      * Get the build plan for a mob
      */
-    public static List<BlockPos> getBuildPlan(UUID mobId) {
+    public static PackedPath getBuildPlan(UUID mobId) {
         return mobBuildPlans.get(mobId);
     }
 
@@ -47,7 +54,7 @@ public class BuildPlanData {
     /**
      * Get all build plans (for rendering)
      */
-    public static Map<UUID, List<BlockPos>> getAllBuildPlans() {
+    public static Map<UUID, PackedPath> getAllBuildPlans() {
         // Clean up expired plans
         long now = System.currentTimeMillis();
         planTimestamps.entrySet().removeIf(entry -> {
@@ -0,0 +1,123 @@
+package com.example.ai;
+
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived memo of what searches from one region to another could not do.
+ * When the first mob of a pack finds the player walled in, the rest of the
+ * pack skips straight past walking, and a search that got nowhere at all
+ * isn't repeated by its neighbours. An entry holds until a block changes in a
+ * section the failed search read, or for TTL_MS at most. Server thread only.
+ */
+public final class FailedSearches {
+
+    // Source regions are 8 blocks across, target regions 4
+    private static final int SOURCE_SHIFT = 3;
+    private static final int TARGET_SHIFT = 2;
+    // The target moves and the failure only covers the sections the search read, so don't trust it long
+    private static final long TTL_MS = 5000;
+    private static final int SWEEP_INTERVAL = 100;
+
+    private static final Map<Key, Entry> failures = new ConcurrentHashMap<>();
+    private static int sweepTicks = 0;
+
+    private FailedSearches() {
+    }
+
+    private static final class Key {
+        final ResourceKey<Level> dimension;
+        final long sourceRegion;
+        final long targetRegion;
+
+        Key(ResourceKey<Level> dimension, BlockPos start, BlockPos target) {
+            this.dimension = dimension;
+            this.sourceRegion = BlockPos.asLong(start.getX() >> SOURCE_SHIFT, start.getY() >> SOURCE_SHIFT, start.getZ() >> SOURCE_SHIFT);
+            this.targetRegion = BlockPos.asLong(target.getX() >> TARGET_SHIFT, target.getY() >> TARGET_SHIFT, target.getZ() >> TARGET_SHIFT);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && sourceRegion == other.sourceRegion && targetRegion == other.targetRegion
+                    && dimension == other.dimension;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(sourceRegion) * 31 + Long.hashCode(targetRegion);
+        }
+    }
+
+    private static final class Entry {
+        // Highest AStarPathfinder.LAYER_* known to fail
+        final int layer;
+        final SectionVersions dependencies;
+        final long createdAt;
+
+        Entry(int layer, SectionVersions dependencies, long createdAt) {
+            this.layer = layer;
+            this.dependencies = dependencies;
+            this.createdAt = createdAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - createdAt > TTL_MS;
+        }
+    }
+
+    public static void register() {
+        ServerTickEvents.END_SERVER_TICK.register(server -> {
+            if (++sweepTicks >= SWEEP_INTERVAL) {
+                sweepTicks = 0;
+                long now = System.currentTimeMillis();
+                failures.values().removeIf(entry -> entry.isExpired(now));
+            }
+        });
+    }
+
+    /**
+     * Remember what a finished layered search from start to target proved
+     * impossible, if anything: walking when the target turned out to be
+     * enclosed, every layer when the search ran out of nodes to explore without
+     * reaching anything. A search that only ran out of budget proves nothing.
+     * dependencies are the sections the search read.
+     */
+    public static void record(ResourceKey<Level> dimension, BlockPos start, BlockPos target, AStarPathfinder.PathResult result,
+            SectionVersions dependencies) {
+        int layer;
+        if (!result.found && result.exhausted) {
+            layer = AStarPathfinder.LAYER_HARD_BREAK;
+        } else if (result.enclosed) {
+            layer = AStarPathfinder.LAYER_WALK;
+        } else {
+            return;
+        }
+        failures.put(new Key(dimension, start, target), new Entry(layer, dependencies, System.currentTimeMillis()));
+    }
+
+    /**
+     * Highest AStarPathfinder.LAYER_* a search from start to target is known
+     * to fail with, or -1 if nothing is known.
+     */
+    public static int failedLayer(Level level, BlockPos start, BlockPos target) {
+        Key key = new Key(level.dimension(), start, target);
+        Entry entry = failures.get(key);
+        if (entry == null) {
+            return -1;
+        }
+        if (entry.isExpired(System.currentTimeMillis()) || !entry.dependencies.isCurrent(level)) {
+            failures.remove(key);
+            return -1;
+        }
+        return entry.layer;
+    }
+
+    public static void clearAll() {
+        failures.clear();
+    }
+}
@@ -0,0 +1,578 @@
+package com.example.ai;
+
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.entity.Mob;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.Level;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared walking flow field per hunted player.
+ * A reverse Dijkstra grown from the player's cell gives every cell within
+ * FIELD_RADIUS its next step towards the player, so all hunters of that
+ * player read their path from one field instead of running their own A*.
+ * Fields are rebuilt in the background (as AsyncPathfinder jobs) when the
+ * player moves, and double-buffered: mobs keep reading the previous field
+ * until the new one is complete. A rebuild repairs the previous field where
+ * it can instead of starting over (see Build.carryOver). Mobs outside
+ * the field, or that can only reach the player by breaking or building, fall
+ * back to per-mob searches.
+ *
+ * Server thread only, apart from the build jobs.
+ */
+public final class FlowField {
+
+    // Horizontal reach of a field around its root
+    private static final int FIELD_RADIUS = 40;
+    private static final int MAX_FIELD_NODES = 40000;
+    // Budget charged per settled cell: it tries every walk and drop move into it, several A* expansions' worth
+    private static final int NODE_COST = 4;
+    // Settling a cell whose moves are reused from the previous field is mostly heap work
+    private static final int CACHED_NODE_COST = 1;
+    // Rebuild once the player is this far from the field's root, or the field is this old.
+    // Rebuilds are mostly repairs, so both can be tight.
+    private static final double REBUILD_DISTANCE = 1.5;
+    private static final long REFRESH_TICKS = 40;
+    // How far below an airborne player to look for the cell they'll land in
+    private static final int MAX_ROOT_DROP = 16;
+    // Drop a field nobody has asked for in this long
+    private static final long STALE_TICKS = 200;
+    private static final int MAX_PATH_LENGTH = 200;
+
+    // Repairs drop carried-over cells this close to a changed section (move checks read a few blocks around a cell)
+    private static final int CHANGE_MARGIN_XZ = 3;
+    private static final int CHANGE_MARGIN_Y = 6;
+    // With more changed sections than this a repair would redo most of the field anyway
+    private static final int MAX_CHANGED_SECTIONS = 16;
+    // Budget charged per previous cell for the repair's carry-over pass
+    private static final int CARRY_OVER_CELLS_PER_UNIT = 8;
+
+    // Cell states while carrying a field over
+    private static final byte UNKNOWN = 0;
+    private static final byte KEEP = 1;
+    private static final byte DROP = 2;
+
+    private static final Map<UUID, PlayerField> fields = new ConcurrentHashMap<>();
+
+    private FlowField() {
+    }
+
+    public static void register() {
+        ServerTickEvents.END_SERVER_TICK.register(server -> tick());
+    }
+
+    /**
+     * Walking path from the mob to the target player read from the player's field,
+     * or null if there is no field yet or the mob isn't in it.
+     */
+    public static PackedPath pathFrom(Mob mob, Player target) {
+        PlayerField field = fields.computeIfAbsent(target.getUUID(), id -> new PlayerField(target));
+        field.player = target;
+        field.lastRequested = target.level().getGameTime();
+
+        if (field.current == null || field.currentDimension != mob.level().dimension()) {
+            return null;
+        }
+        BlockPos start = mob.blockPosition();
+        int node = field.current.find(start.asLong());
+        if (node == PathNodeStore.NO_NODE) {
+            // Mid-jump: try the cell below
+            node = field.current.find(start.below().asLong());
+        }
+        if (node == PathNodeStore.NO_NODE) {
+            return null;
+        }
+
+        int length = 0;
+        for (int n = node; n != PathNodeStore.NO_NODE && length < MAX_PATH_LENGTH; n = field.current.parent(n)) {
+            length++;
+        }
+        long[] positions = new long[length];
+        byte[] flags = new byte[length];
+        for (int i = 0; i < length; i++) {
+            positions[i] = field.current.pos(node);
+            if (i > 0) {
+                int dy = BlockPos.getY(positions[i]) - BlockPos.getY(positions[i - 1]);
+                flags[i] = dy > 0 ? PackedPath.JUMP : dy < 0 ? PackedPath.DROP : 0;
+            }
+            node = field.current.parent(node);
+        }
+        return PackedPath.wrap(positions, flags);
+    }
+
+    /**
+     * NavigabilityIndex level version the target's current field was built
+     * at, for paths read from it with pathFrom().
+     */
+    public static int versionOf(Player target) {
+        PlayerField field = fields.get(target.getUUID());
+        return field != null && field.currentSnapshot != null ? field.currentSnapshot.version() : 0;
+    }
+
+    /**
+     * True if the mob is well inside the target's finished field and the field
+     * never reached it, so walking alone can't get it to the player. Only a hint
+     * for the layered search; false whenever the field can't tell.
+     */
+    public static boolean isWalkUnreachable(Mob mob, Player target) {
+        PlayerField field = fields.get(target.getUUID());
+        if (field == null || field.current == null || !field.currentComplete
+                || field.currentDimension != mob.level().dimension()
+                || (!field.currentRoot.closerThan(target.blockPosition(), REBUILD_DISTANCE)
+                        && !field.currentRoot.equals(standingCell(target)))) {
+            return false;
+        }
+        BlockPos start = mob.blockPosition();
+        if (Math.abs(start.getX() - field.currentRoot.getX()) > FIELD_RADIUS / 2
+                || Math.abs(start.getZ() - field.currentRoot.getZ()) > FIELD_RADIUS / 2) {
+            return false; // A walking route could leave the field's area and come back
+        }
+        return field.current.find(start.asLong()) == PathNodeStore.NO_NODE
+                && field.current.find(start.below().asLong()) == PathNodeStore.NO_NODE;
+    }
+
+    public static void clearAll() {
+        fields.values().forEach(PlayerField::cancelBuild);
+        fields.clear();
+    }
+
+    private static void tick() {
+        Iterator<PlayerField> iterator = fields.values().iterator();
+        while (iterator.hasNext()) {
+            PlayerField field = iterator.next();
+            Player player = field.player;
+            long now = player.level().getGameTime();
+            if (player.isRemoved() || now - field.lastRequested > STALE_TICKS) {
+                field.cancelBuild();
+                iterator.remove();
+                continue;
+            }
+
+            if (field.building != null) {
+                if (!field.building.isFinished()) {
+                    continue;
+                }
+                field.publish(now);
+            }
+
+            BlockPos root = standingCell(player);
+            if (root == null) {
+                continue; // Falling into the void or over unloaded chunks; keep the last field
+            }
+            if (field.current == null
+                    || field.currentDimension != player.level().dimension()
+                    || !field.currentRoot.closerThan(root, REBUILD_DISTANCE)
+                    || now - field.builtAt > REFRESH_TICKS) {
+                field.startBuild(player.level(), root);
+            }
+        }
+    }
+
+    /**
+     * The player's cell, or if they're in the air the first cell below it with
+     * a floor, so a jumping or flying player doesn't root the field in a cell
+     * nothing can stand in. Null if there is no floor within MAX_ROOT_DROP.
+     */
+    private static BlockPos standingCell(Player player) {
+        Level level = player.level();
+        BlockPos pos = player.blockPosition();
+        for (int drop = 0; drop <= MAX_ROOT_DROP; drop++) {
+            int below = NavigabilityIndex.query(level, BlockPos.asLong(pos.getX(), pos.getY() - drop - 1, pos.getZ()));
+            if (below == NavigabilityIndex.UNLOADED) {
+                return null;
+            }
+            if ((below & (BlockClassCache.SOLID | BlockClassCache.LIQUID)) != 0) {
+                return pos.below(drop);
+            }
+        }
+        return null;
+    }
+
+    private static boolean inField(long pos, BlockPos root) {
+        return Math.abs(BlockPos.getX(pos) - root.getX()) <= FIELD_RADIUS
+                && Math.abs(BlockPos.getZ(pos) - root.getZ()) <= FIELD_RADIUS;
+    }
+
+    /**
+     * The published field of one player and the buffer being rebuilt behind it.
+     */
+    private static final class PlayerField {
+        Player player;
+        long lastRequested;
+
+        // Published field: each cell's parent is its next step towards currentRoot
+        PathNodeStore current;
+        Edges currentEdges;
+        NavSnapshot currentSnapshot;
+        BlockPos currentRoot;
+        ResourceKey<Level> currentDimension;
+        // Grown until nothing more was reachable, rather than stopped at MAX_FIELD_NODES
+        boolean currentComplete;
+        long builtAt;
+
+        PathNodeStore spare = new PathNodeStore();
+        Edges spareEdges = new Edges();
+        final BlockClassCache blocks = new BlockClassCache();
+        Build building;
+
+        PlayerField(Player player) {
+            this.player = player;
+        }
+
+        void startBuild(Level level, BlockPos root) {
+            NavSnapshot snapshot = NavSnapshot.capture(level,
+                    root.offset(-FIELD_RADIUS, 0, -FIELD_RADIUS), root.offset(FIELD_RADIUS, 0, FIELD_RADIUS));
+            building = new Build(spare, spareEdges, blocks, snapshot, root, level.dimension());
+            // Repair the published field if it was grown out fully and still reaches the new root
+            if (current != null && currentComplete && currentDimension == level.dimension()
+                    && current.find(root.asLong()) != PathNodeStore.NO_NODE) {
+                building.repairFrom(current, currentEdges, currentSnapshot);
+            }
+            AsyncPathfinder.schedule(building);
+        }
+
+        void publish(long now) {
+            Build finished = building;
+            building = null;
+            if (finished.cancelled) {
+                return;
+            }
+            PathNodeStore previous = current;
+            Edges previousEdges = currentEdges;
+            current = finished.nodes;
+            currentEdges = finished.edges;
+            currentSnapshot = finished.snapshot;
+            currentRoot = finished.root;
+            currentDimension = finished.dimension;
+            currentComplete = finished.complete;
+            builtAt = now;
+            // Only the server thread reads fields, so the old one can be refilled next
+            spare = previous != null ? previous : new PathNodeStore();
+            spareEdges = previousEdges != null ? previousEdges : new Edges();
+        }
+
+        void cancelBuild() {
+            if (building != null) {
+                building.cancelled = true;
+            }
+        }
+    }
+
+    /**
+     * The walk moves into each settled cell of a field, kept so that a repair
+     * can settle the cell again without re-checking them. A move is stored as
+     * the predecessor's offset from the cell, packed in a byte, plus its cost.
+     */
+    static final class Edges {
+        // Predecessors are at most 1 away horizontally and from 1 below to 4 above (drops)
+        private static final int MIN_DY = -1;
+        private static final int SPAN_Y = 6;
+
+        // Per node: where its moves start in move[]/cost[], and how many there are
+        private int[] start = new int[4096];
+        private byte[] count = new byte[4096];
+        private byte[] move = new byte[32768];
+        private float[] cost = new float[32768];
+        private int size;
+
+        void reset() {
+            size = 0;
+        }
+
+        void record(int node, long to, long[] from, double[] costs, int moves) {
+            int at = allocate(node, moves);
+            for (int i = 0; i < moves; i++) {
+                int dx = BlockPos.getX(from[i]) - BlockPos.getX(to);
+                int dy = BlockPos.getY(from[i]) - BlockPos.getY(to);
+                int dz = BlockPos.getZ(from[i]) - BlockPos.getZ(to);
+                move[at + i] = (byte) (((dx + 1) * 3 + dz + 1) * SPAN_Y + dy - MIN_DY);
+                cost[at + i] = (float) costs[i];
+            }
+        }
+
+        void copy(int node, Edges source, int sourceNode) {
+            int moves = source.count[sourceNode];
+            int at = allocate(node, moves);
+            System.arraycopy(source.move, source.start[sourceNode], move, at, moves);
+            System.arraycopy(source.cost, source.start[sourceNode], cost, at, moves);
+        }
+
+        int count(int node) {
+            return count[node];
+        }
+
+        long from(int node, int i, long to) {
+            int packed = move[start[node] + i];
+            int dy = packed % SPAN_Y + MIN_DY;
+            int dz = packed / SPAN_Y % 3 - 1;
+            int dx = packed / SPAN_Y / 3 - 1;
+            return BlockPos.offset(to, dx, dy, dz);
+        }
+
+        float cost(int node, int i) {
+            return cost[start[node] + i];
+        }
+
+        private int allocate(int node, int moves) {
+            if (node >= start.length) {
+                int capacity = Math.max(start.length * 2, node + 1);
+                start = Arrays.copyOf(start, capacity);
+                count = Arrays.copyOf(count, capacity);
+            }
+            if (size + moves > move.length) {
+                int capacity = Math.max(move.length * 2, size + moves);
+                move = Arrays.copyOf(move, capacity);
+                cost = Arrays.copyOf(cost, capacity);
+            }
+            int at = size;
+            start[node] = at;
+            count[node] = (byte) moves;
+            size += moves;
+            return at;
+        }
+    }
+
+    /**
+     * Budgeted reverse Dijkstra from the root. Open and closed sets live in a
+     * PathNodeStore; a node's parent is the cell it steps to next.
+     * Carried-over cells are neither open nor closed: they are only expanded
+     * again if the search finds them a shorter route.
+     */
+    static final class Build implements AsyncPathfinder.SlicedJob {
+        final PathNodeStore nodes;
+        final Edges edges;
+        final BlockClassCache blocks;
+        final NavSnapshot snapshot;
+        final BlockPos root;
+        final ResourceKey<Level> dimension;
+
+        private final long[] predecessors = new long[64];
+        private final double[] costs = new double[64];
+        // Field being repaired, read-only here (mobs keep reading it until this one is published)
+        private PathNodeStore previous;
+        private Edges previousEdges;
+        private NavSnapshot previousSnapshot;
+        // Block boxes around sections that changed since the previous capture
+        private List<int[]> changed;
+        private boolean started;
+        boolean complete;
+        volatile boolean done;
+        volatile boolean cancelled;
+
+        Build(PathNodeStore nodes, Edges edges, BlockClassCache blocks, NavSnapshot snapshot, BlockPos root, ResourceKey<Level> dimension) {
+            this.nodes = nodes;
+            this.edges = edges;
+            this.blocks = blocks;
+            this.snapshot = snapshot;
+            this.root = root;
+            this.dimension = dimension;
+        }
+
+        void repairFrom(PathNodeStore previous, Edges previousEdges, NavSnapshot previousSnapshot) {
+            this.previous = previous;
+            this.previousEdges = previousEdges;
+            this.previousSnapshot = previousSnapshot;
+        }
+
+        @Override
+        public void run(int budget) {
+            if (!started) {
+                started = true;
+                nodes.reset();
+                edges.reset();
+                blocks.reset(snapshot);
+                if (previous != null) {
+                    changed = changedSections();
+                    if (changed == null) {
+                        previous = null;
+                    }
+                }
+                if (previous != null) {
+                    budget -= carryOver();
+                } else {
+                    int rootNode = nodes.getOrCreate(root.asLong());
+                    nodes.update(rootNode, PathNodeStore.NO_NODE, 0, 0);
+                    nodes.push(rootNode);
+                }
+            }
+
+            while (budget > 0 && !cancelled) {
+                if (nodes.isOpenEmpty() || nodes.size() >= MAX_FIELD_NODES) {
+                    // A field that never left its root proves nothing about what can reach it
+                    complete = nodes.isOpenEmpty() && nodes.size() > 1;
+                    done = true;
+                    previous = null;
+                    previousEdges = null;
+                    return;
+                }
+                int current = nodes.poll();
+                nodes.close(current);
+                long pos = nodes.pos(current);
+
+                int cached = reusableNode(pos);
+                if (cached != PathNodeStore.NO_NODE) {
+                    edges.copy(current, previousEdges, cached);
+                    budget -= CACHED_NODE_COST;
+                } else {
+                    int count = AStarPathfinder.walkPredecessors(blocks, pos, predecessors, costs);
+                    edges.record(current, pos, predecessors, costs, count);
+                    budget -= NODE_COST;
+                }
+                relaxMoves(current);
+            }
+        }
+
+        private void relaxMoves(int node) {
+            long pos = nodes.pos(node);
+            for (int i = 0; i < edges.count(node); i++) {
+                long from = edges.from(node, i, pos);
+                if (inField(from, root)) {
+                    relax(from, node, nodes.gCost(node) + edges.cost(node, i));
+                }
+            }
+        }
+
+        private void relax(long pos, int next, double g) {
+            int node = nodes.getOrCreate(pos);
+            if (!nodes.isClosed(node) && g < nodes.gCost(node)) {
+                nodes.update(node, next, g, 0);
+                nodes.push(node);
+            }
+        }
+
+        /**
+         * The previous field's node for a cell whose recorded moves are still
+         * valid, or NO_NODE if they have to be checked again.
+         */
+        private int reusableNode(long pos) {
+            if (previous == null || isNearChange(pos, changed)) {
+                return PathNodeStore.NO_NODE;
+            }
+            int node = previous.find(pos);
+            return node != PathNodeStore.NO_NODE && previous.isClosed(node) ? node : PathNodeStore.NO_NODE;
+        }
+
+        /**
+         * Start from the previous field instead of from scratch (as in Moving
+         * Target D* Lite). Every sub-path of a shortest path is a shortest path,
+         * so previous cells whose route passed through the new root keep it,
+         * with their distance shifted by the root's, and are not settled again.
+         * The rest (cells whose route ran elsewhere or near a changed section)
+         * is re-settled from the kept cells' recorded moves; those cells reuse
+         * their own recorded moves too unless they are near a change.
+         *
+         * @return budget units used
+         */
+        private int carryOver() {
+            int count = previous.size();
+            byte[] state = new byte[count];
+            int[] chain = new int[count];
+            int newRoot = previous.find(root.asLong());
+            state[newRoot] = KEEP;
+            for (int i = 0; i < count; i++) {
+                int depth = 0;
+                int node = i;
+                while (node != PathNodeStore.NO_NODE && state[node] == UNKNOWN) {
+                    long pos = previous.pos(node);
+                    if (!previous.isClosed(node) || !inField(pos, root) || isNearChange(pos, changed)) {
+                        state[node] = DROP;
+                        break;
+                    }
+                    chain[depth++] = node;
+                    node = previous.parent(node);
+                }
+                // Reaching the previous root means the route never passed the new one
+                byte result = node != PathNodeStore.NO_NODE && state[node] == KEEP ? KEEP : DROP;
+                while (depth > 0) {
+                    state[chain[--depth]] = result;
+                }
+            }
+
+            // Carry the kept cells over with their moves; chain[] now maps previous node -> new node
+            double offset = previous.gCost(newRoot);
+            for (int i = 0; i < count; i++) {
+                if (state[i] == KEEP) {
+                    chain[i] = nodes.getOrCreate(previous.pos(i));
+                    edges.copy(chain[i], previousEdges, i);
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                if (state[i] == KEEP) {
+                    int next = i == newRoot ? PathNodeStore.NO_NODE : chain[previous.parent(i)];
+                    nodes.update(chain[i], next, previous.gCost(i) - offset, 0);
+                }
+            }
+
+            // Queue every other cell that has a move into a kept one
+            for (int i = 0; i < count; i++) {
+                if (state[i] == KEEP) {
+                    relaxMoves(chain[i]);
+                }
+            }
+            return count / CARRY_OVER_CELLS_PER_UNIT;
+        }
+
+        /**
+         * Block boxes, widened by the change margins, of sections that differ from
+         * the previous capture. Null if there are too many to be worth repairing.
+         * The index copies a section before patching it, so identity is enough.
+         */
+        private List<int[]> changedSections() {
+            List<int[]> boxes = new ArrayList<>();
+            int dx = snapshot.minSx() - previousSnapshot.minSx();
+            int dy = snapshot.minSy() - previousSnapshot.minSy();
+            int dz = snapshot.minSz() - previousSnapshot.minSz();
+            for (int sy = 0; sy < snapshot.sizeY(); sy++) {
+                for (int sz = 0; sz < snapshot.sizeZ(); sz++) {
+                    for (int sx = 0; sx < snapshot.sizeX(); sx++) {
+                        if (!previousSnapshot.contains(sx + dx, sy + dy, sz + dz)
+                                || previousSnapshot.section(sx + dx, sy + dy, sz + dz) == snapshot.section(sx, sy, sz)) {
+                            continue;
+                        }
+                        if (boxes.size() == MAX_CHANGED_SECTIONS) {
+                            return null;
+                        }
+                        int x = SectionPos.sectionToBlockCoord(snapshot.minSx() + sx);
+                        int y = SectionPos.sectionToBlockCoord(snapshot.minSy() + sy);
+                        int z = SectionPos.sectionToBlockCoord(snapshot.minSz() + sz);
+                        boxes.add(new int[] {
+                                x - CHANGE_MARGIN_XZ, y - CHANGE_MARGIN_Y, z - CHANGE_MARGIN_XZ,
+                                x + 15 + CHANGE_MARGIN_XZ, y + 15 + CHANGE_MARGIN_Y, z + 15 + CHANGE_MARGIN_XZ });
+                    }
+                }
+            }
+            return boxes;
+        }
+
+        private static boolean isNearChange(long pos, List<int[]> changed) {
+            int x = BlockPos.getX(pos);
+            int y = BlockPos.getY(pos);
+            int z = BlockPos.getZ(pos);
+            for (int[] box : changed) {
+                if (x >= box[0] && y >= box[1] && z >= box[2] && x <= box[3] && y <= box[4] && z <= box[5]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return done || cancelled;
+        }
+
+        @Override
+        public void abandon() {
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.ai;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerEntityEvents;
+import net.minecraft.world.entity.Mob;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Per-mob hunt state, stored by field in parallel arrays indexed by a dense
+ * slot instead of in maps keyed by UUID. A hunter gets a slot when it's
+ * loaded (or first hunts) and keeps it on the entity, so a lookup is an
+ * array index rather than hashing a UUID; the slot is freed and reused when
+ * the mob is unloaded. Slot 0 is never handed out, so a mob's zeroed slot
+ * field means it has none. Server thread only; the arrays are replaced when
+ * they grow, so read them through the class each time.
+ */
+public final class HuntAgents {
+
+    public static final int NO_SLOT = 0;
+    private static final int INITIAL_CAPACITY = 256;
+    // lastPos of a mob that hasn't been checked for being stuck yet
+    static final long NO_POS = Long.MIN_VALUE;
+
+    /**
+     * Implemented by the Mob mixin: the mob's slot, NO_SLOT if it has none.
+     */
+    public interface Agent {
+        int challengemod$agentSlot();
+
+        void challengemod$setAgentSlot(int slot);
+    }
+
+    private static int capacity = INITIAL_CAPACITY;
+    // Next never-used slot, and slots freed since
+    private static int nextSlot = 1;
+    private static final IntArrayList freeSlots = new IntArrayList();
+
+    static Mob[] mobs = new Mob[INITIAL_CAPACITY];
+
+    // Current path and the search that will replace it (MobPathManager)
+    static MobPathManager.CachedPath[] paths = new MobPathManager.CachedPath[INITIAL_CAPACITY];
+    @SuppressWarnings("unchecked")
+    static CompletableFuture<MobPathManager.SearchOutcome>[] searches = new CompletableFuture[INITIAL_CAPACITY];
+    // The search was only started to look for an easier path; its result needn't replace a still good one
+    static boolean[] recheckOnly = new boolean[INITIAL_CAPACITY];
+
+    // Following the current path: next node, stuck detection, placing and breaking on the way
+    static int[] cursor = new int[INITIAL_CAPACITY];
+    static int[] stuckTicks = new int[INITIAL_CAPACITY];
+    static long[] lastPos = filledPositions(INITIAL_CAPACITY);
+    static int[] placeDelay = new int[INITIAL_CAPACITY];
+    static boolean[] breaking = new boolean[INITIAL_CAPACITY];
+    // When the path was last checked for an easier one (System.currentTimeMillis())
+    static long[] lastCheckTime = new long[INITIAL_CAPACITY];
+
+    // Pillar building (MobBuilderHandler); lastBuildTime 0 means never
+    static MobBuilderHandler.BuildingState[] building = new MobBuilderHandler.BuildingState[INITIAL_CAPACITY];
+    static long[] lastBuildTime = new long[INITIAL_CAPACITY];
+
+    private HuntAgents() {
+    }
+
+    public static void register() {
+        ServerEntityEvents.ENTITY_LOAD.register((entity, level) -> {
+            if (entity instanceof Mob mob && HuntRules.isEligibleMob(mob)) {
+                slotOf(mob);
+            }
+        });
+        ServerEntityEvents.ENTITY_UNLOAD.register((entity, level) -> {
+            if (entity instanceof Mob mob) {
+                MobPathManager.onMobRemoved(mob);
+            }
+        });
+    }
+
+    /**
+     * The mob's slot, assigned now if it has none.
+     */
+    public static int slotOf(Mob mob) {
+        Agent agent = (Agent) mob;
+        int slot = agent.challengemod$agentSlot();
+        if (slot != NO_SLOT) {
+            return slot;
+        }
+        slot = freeSlots.isEmpty() ? nextSlot++ : freeSlots.popInt();
+        if (slot >= capacity) {
+            grow(Math.max(capacity * 2, slot + 1));
+        }
+        mobs[slot] = mob;
+        agent.challengemod$setAgentSlot(slot);
+        return slot;
+    }
+
+    /**
+     * The mob's slot, or NO_SLOT if it has none.
+     */
+    public static int peek(Mob mob) {
+        return mob instanceof Agent agent ? agent.challengemod$agentSlot() : NO_SLOT;
+    }
+
+    /**
+     * Drop the mob's state and free its slot. A pending search is cancelled.
+     */
+    static void release(Mob mob) {
+        int slot = peek(mob);
+        if (slot == NO_SLOT || mobs[slot] != mob) {
+            return;
+        }
+        reset(slot);
+        mobs[slot] = null;
+        ((Agent) mob).challengemod$setAgentSlot(NO_SLOT);
+        freeSlots.push(slot);
+    }
+
+    /**
+     * Make cached the slot's path and start following it from its first node.
+     */
+    static void setPath(int slot, MobPathManager.CachedPath cached) {
+        paths[slot] = cached;
+        cursor[slot] = 0;
+        stuckTicks[slot] = 0;
+        lastPos[slot] = NO_POS;
+        placeDelay[slot] = 0;
+        breaking[slot] = false;
+        lastCheckTime[slot] = cached.timestamp;
+    }
+
+    static void clearPath(int slot) {
+        paths[slot] = null;
+    }
+
+    /**
+     * Cancel the slot's pending search, if any, and forget it.
+     */
+    static void cancelSearch(int slot) {
+        CompletableFuture<MobPathManager.SearchOutcome> pending = searches[slot];
+        if (pending != null) {
+            searches[slot] = null;
+            pending.cancel(false);
+        }
+    }
+
+    /**
+     * Drop every mob's hunt state; mobs keep their slots.
+     */
+    static void clearAll() {
+        for (int slot = 1; slot < nextSlot; slot++) {
+            reset(slot);
+        }
+    }
+
+    /**
+     * Drop every mob's pillar building state and build cooldown.
+     */
+    static void clearBuilding() {
+        Arrays.fill(building, null);
+        Arrays.fill(lastBuildTime, 0);
+    }
+
+    private static void reset(int slot) {
+        cancelSearch(slot);
+        recheckOnly[slot] = false;
+        paths[slot] = null;
+        cursor[slot] = 0;
+        stuckTicks[slot] = 0;
+        lastPos[slot] = NO_POS;
+        placeDelay[slot] = 0;
+        breaking[slot] = false;
+        lastCheckTime[slot] = 0;
+        building[slot] = null;
+        lastBuildTime[slot] = 0;
+    }
+
+    private static void grow(int newCapacity) {
+        mobs = Arrays.copyOf(mobs, newCapacity);
+        paths = Arrays.copyOf(paths, newCapacity);
+        searches = Arrays.copyOf(searches, newCapacity);
+        recheckOnly = Arrays.copyOf(recheckOnly, newCapacity);
+        cursor = Arrays.copyOf(cursor, newCapacity);
+        stuckTicks = Arrays.copyOf(stuckTicks, newCapacity);
+        long[] grownPositions = filledPositions(newCapacity);
+        System.arraycopy(lastPos, 0, grownPositions, 0, capacity);
+        lastPos = grownPositions;
+        placeDelay = Arrays.copyOf(placeDelay, newCapacity);
+        breaking = Arrays.copyOf(breaking, newCapacity);
+        lastCheckTime = Arrays.copyOf(lastCheckTime, newCapacity);
+        building = Arrays.copyOf(building, newCapacity);
+        lastBuildTime = Arrays.copyOf(lastBuildTime, newCapacity);
+        capacity = newCapacity;
+    }
+
+    private static long[] filledPositions(int length) {
+        long[] positions = new long[length];
+        Arrays.fill(positions, NO_POS);
+        return positions;
+    }
+}
@@ -1,5 +1,10 @@
 package com.example.ai;
 
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.Mob;
 import net.minecraft.world.entity.NeutralMob;
@@ -9,8 +14,36 @@ import net.minecraft.world.entity.boss.wither.WitherBoss;
 import net.minecraft.world.entity.monster.EnderMan;
 import net.minecraft.world.entity.monster.Monster;
 import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Who mobs hunt. Each level keeps a grid of the players that can be hunted,
+ * rebuilt once per tick with cells as wide as the hunt range, so finding a
+ * mob's nearest target only looks at the players in the 3x3 cells around it.
+ * Hunters that are due to look for a nearer target enlist during their tick
+ * and are all assigned one in a single pass at the start of the next level
+ * tick; the result goes to the mob's hunt state (see Hunter).
+ */
 public final class HuntRules {
+	// Grid cells are never narrower than this, so a short hunt range doesn't make a sparse grid
+	private static final int MIN_CELL_SIZE = 16;
+
+	private static final Map<ResourceKey<Level>, LevelTargets> levels = new ConcurrentHashMap<>();
+
+	/**
+	 * Hunt state of a mob (implemented by the Mob mixin)
+	 */
+	public interface Hunter {
+		// The nearest target from the batched pass, or null if none is in range
+		void challengemod$assignTarget(Player target);
+	}
+
 	public static double getHuntRange() {
 		return com.example.ChallengeMod.getHuntRange();
 	}
@@ -45,19 +78,119 @@ public final class HuntRules {
 		return true;
 	}
 
+	public static void register() {
+		ServerTickEvents.START_WORLD_TICK.register(level -> {
+			LevelTargets targets = levels.computeIfAbsent(level.dimension(), key -> new LevelTargets());
+			targets.rebuild(level);
+			targets.assignEnlisted();
+		});
+		ServerLifecycleEvents.SERVER_STOPPED.register(server -> clearAll());
+	}
+
+	/**
+	 * Nearest huntable player in range of the mob, or null.
+	 */
 	public static Player findClosestTarget(Mob mob) {
+		double rangeSquared = getHuntRangeSquared();
+		LevelTargets targets = levels.get(mob.level().dimension());
+		if (targets != null && targets.level == mob.level()) {
+			return targets.nearest(mob, rangeSquared);
+		}
+
+		// No grid for this level yet
 		Player closest = null;
-		double closestDistance = getHuntRangeSquared();
+		double closestDistance = rangeSquared;
 		for (Player player : mob.level().players()) {
 			if (!isValidPlayerTarget(player)) {
 				continue;
 			}
 			double distance = mob.distanceToSqr(player);
-			if (distance <= getHuntRangeSquared() && distance < closestDistance) {
+			if (distance < closestDistance) {
 				closest = player;
 				closestDistance = distance;
 			}
 		}
 		return closest;
 	}
+
+	/**
+	 * Queue the mob for the batched target assignment at the start of the next level tick.
+	 */
+	public static void enlist(Mob mob) {
+		LevelTargets targets = levels.get(mob.level().dimension());
+		if (targets != null && targets.level == mob.level()) {
+			targets.enlisted.add(mob);
+		} else {
+			((Hunter) mob).challengemod$assignTarget(findClosestTarget(mob));
+		}
+	}
+
+	public static void clearAll() {
+		levels.clear();
+	}
+
+	/**
+	 * The target grid of one level and the hunters waiting for an assignment.
+	 */
+	private static final class LevelTargets {
+		Level level;
+		int cellSize = MIN_CELL_SIZE;
+		final Long2ObjectOpenHashMap<List<Player>> cells = new Long2ObjectOpenHashMap<>();
+		final List<Mob> enlisted = new ArrayList<>();
+
+		void rebuild(ServerLevel level) {
+			this.level = level;
+			cellSize = Math.max(MIN_CELL_SIZE, (int) Math.ceil(getHuntRange()));
+			cells.clear();
+			for (Player player : level.players()) {
+				if (isValidPlayerTarget(player)) {
+					cells.computeIfAbsent(cell(player.getX(), player.getZ()), key -> new ArrayList<>(2)).add(player);
+				}
+			}
+		}
+
+		void assignEnlisted() {
+			if (enlisted.isEmpty()) {
+				return;
+			}
+			double rangeSquared = getHuntRangeSquared();
+			for (Mob mob : enlisted) {
+				if (!mob.isRemoved() && mob.level() == level) {
+					((Hunter) mob).challengemod$assignTarget(nearest(mob, rangeSquared));
+				}
+			}
+			enlisted.clear();
+		}
+
+		Player nearest(Mob mob, double rangeSquared) {
+			int cx = Math.floorDiv((int) Math.floor(mob.getX()), cellSize);
+			int cz = Math.floorDiv((int) Math.floor(mob.getZ()), cellSize);
+			Player closest = null;
+			double closestDistance = rangeSquared;
+			for (int dx = -1; dx <= 1; dx++) {
+				for (int dz = -1; dz <= 1; dz++) {
+					List<Player> players = cells.get(ChunkPos.asLong(cx + dx, cz + dz));
+					if (players == null) {
+						continue;
+					}
+					for (Player player : players) {
+						// Still valid: the grid is from the start of the tick
+						if (!isValidPlayerTarget(player)) {
+							continue;
+						}
+						double distance = mob.distanceToSqr(player);
+						if (distance < closestDistance) {
+							closest = player;
+							closestDistance = distance;
+						}
+					}
+				}
+			}
+			return closest;
+		}
+
+		private long cell(double x, double z) {
+			return ChunkPos.asLong(Math.floorDiv((int) Math.floor(x), cellSize), Math.floorDiv((int) Math.floor(z), cellSize));
+		}
+	}
 }
@@ -0,0 +1,132 @@
+package com.example.ai;
+
+import com.example.ChallengeMod;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.world.entity.Mob;
+
+import java.util.Arrays;
+
+/**
+ * Decides on which ticks a hunter runs its periodic AI work. Every mob and
+ * task pair gets its own phase within the task's period, taken from the
+ * entity id: ids are handed out in sequence, so a wave spawned in one tick
+ * spreads evenly over the period instead of raycasting and repathing all on
+ * the same tick. Also counts how much work came due per tick. Server thread only.
+ */
+public final class HuntScheduler {
+
+    /**
+     * Periodic per-mob work. All but HUNT_STEP run inside the mob's hunt step.
+     */
+    public enum Task {
+        // The whole hunt logic; its period is the targeting interval
+        HUNT_STEP(1),
+        // Look for a nearer player than the current target
+        RETARGET(20),
+        // Line of sight raycast for blocks to break
+        BREAK_CHECK(5),
+        // Pick a new spot around a tower base
+        PATROL(40),
+        // Walk towards a tower base from further out
+        APPROACH(20),
+        // Refresh the debug build plan
+        BUILD_PLAN(20),
+        // Look for an easier path than the current breaking/building one
+        RECHECK(40);
+
+        final int period;
+
+        Task(int period) {
+            this.period = period;
+        }
+    }
+
+    // Offset between one mob's tasks, so they don't all land on the same tick of its period
+    private static final int TASK_SPREAD = 7;
+    // Ticks between load statistics in the debug log
+    private static final int STATS_INTERVAL = 200;
+
+    private static final Task[] TASKS = Task.values();
+
+    private static long tick = 0;
+    // Due tasks counted this tick, by Task ordinal
+    private static final int[] dueThisTick = new int[TASKS.length];
+    private static int lastTickLoad = 0;
+    // Since the last stats line
+    private static long loadSum = 0;
+    private static int loadMax = 0;
+    private static final long[] dueSum = new long[TASKS.length];
+
+    private HuntScheduler() {
+    }
+
+    public static void register() {
+        ServerTickEvents.START_SERVER_TICK.register(server -> startTick());
+    }
+
+    /**
+     * Whether task is due for mob this tick, at its own period.
+     */
+    public static boolean isDue(Mob mob, Task task) {
+        return isDue(mob, task, task.period);
+    }
+
+    /**
+     * Whether task is due for mob this tick, once every period ticks. Tasks
+     * run inside the hunt step are due on the first step in their slot, so
+     * they keep their rate when the targeting interval is longer than one tick.
+     */
+    public static boolean isDue(Mob mob, Task task, int period) {
+        if (period <= 1) {
+            dueThisTick[task.ordinal()]++;
+            return true;
+        }
+        int window = task == Task.HUNT_STEP ? 1 : Math.max(1, ChallengeMod.getTargetIntervalTicks());
+        int phase = Math.floorMod(mob.getId() + task.ordinal() * TASK_SPREAD, period);
+        if (Math.floorMod(tick + phase, period) >= window) {
+            return false;
+        }
+        dueThisTick[task.ordinal()]++;
+        return true;
+    }
+
+    /**
+     * Tasks that came due during the last finished tick.
+     */
+    public static int lastTickLoad() {
+        return lastTickLoad;
+    }
+
+    public static String stats() {
+        StringBuilder due = new StringBuilder();
+        for (Task task : TASKS) {
+            if (due.length() > 0) {
+                due.append(", ");
+            }
+            due.append(task.name().toLowerCase()).append(' ').append(dueSum[task.ordinal()]);
+        }
+        return String.format("hunt schedule %.1f tasks/tick (max %d); %s", loadSum / (double) STATS_INTERVAL, loadMax, due);
+    }
+
+    private static void startTick() {
+        int load = 0;
+        for (int i = 0; i < dueThisTick.length; i++) {
+            load += dueThisTick[i];
+            dueSum[i] += dueThisTick[i];
+            dueThisTick[i] = 0;
+        }
+        lastTickLoad = load;
+        loadSum += load;
+        loadMax = Math.max(loadMax, load);
+
+        if (++tick % STATS_INTERVAL == 0) {
+            if (ChallengeMod.isAStarDebugEnabled()) {
+                ChallengeMod.LOGGER.info("[A*] {}; {}", stats(), NavRequests.stats());
+            }
+            NavRequests.resetStats();
+            loadSum = 0;
+            loadMax = 0;
+            Arrays.fill(dueSum, 0);
+        }
+    }
+}
@@ -0,0 +1,514 @@
+package com.example.ai;
+
+import it.unimi.dsi.fastutil.ints.IntArrayFIFOQueue;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.entity.Mob;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.Level;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Landmark (ALT) distance tables around hunted players.
+ * For a few landmark cells in a box around the player, a table holds the
+ * distance from the landmark to every cell of the box. By the triangle
+ * inequality |d(L, goal) - d(L, cell)| is a lower bound on the distance from
+ * the cell to the goal, which on walled or cave terrain is far tighter than
+ * the straight line, so searches expand fewer dead ends.
+ *
+ * The distances are over a relaxed grid that never costs more than the
+ * layered search: every step to one of the 26 neighbours costs 1 (no search
+ * move is shorter than the cells it crosses), a cell the mob has to break its
+ * way through costs the soft-break layer penalty extra (half on the way in,
+ * half on the way out, which keeps the grid symmetric so one table per
+ * landmark serves both directions), and only unbreakable blocks are walls.
+ * Routes that leave the box aren't counted, so a search using a table is
+ * confined to the table's box (the box is whole sections for this reason).
+ *
+ * Tables are rebuilt in the background (as AsyncPathfinder jobs) when the
+ * player has moved away from the box centre, or lazily after block changes
+ * inside the box. Server thread only, apart from the build jobs.
+ */
+public final class Landmarks {
+
+    // Sections around the player's section the box covers, horizontally and vertically
+    private static final int SECTION_RADIUS_XZ = 2;
+    private static final int SECTION_RADIUS_Y = 1;
+    private static final int LANDMARKS = 4;
+    // Start and goal must be this far inside the box for a table to be used, leaving room for detours
+    private static final int INNER_MARGIN = 8;
+    // Searches stop within a step of their goal
+    private static final int GOAL_SLACK = 1;
+
+    // Rebuild once the player is this far from the box centre...
+    private static final double RECENTRE_DISTANCE = 12.0;
+    // ...or blocks in the box have changed and the tables are at least this old
+    private static final long MIN_REFRESH_TICKS = 100;
+    // Drop tables nobody has asked for in this long
+    private static final long STALE_TICKS = 200;
+
+    // Budget units: cells classified (or scanned) per unit, and cells settled per unit (each relaxes up to 26 neighbours)
+    private static final int CLASSIFIED_PER_UNIT = 32;
+    private static final int SETTLED_PER_UNIT = 8;
+
+    // Cell classes; OPEN and BREAKABLE double as the number of half break costs a step in or out adds
+    private static final byte OPEN = 0;
+    private static final byte BREAKABLE = 1;
+    private static final byte BLOCKED = 2;
+    private static final int HALF_BREAK_COST = (int) AStarPathfinder.LAYER_PENALTY[AStarPathfinder.LAYER_SOFT_BREAK] / 2;
+    // Step costs are at most 1 + 2 * HALF_BREAK_COST, so a ring of this many buckets never wraps onto itself
+    private static final int BUCKETS = Integer.highestOneBit(2 + 2 * HALF_BREAK_COST) << 1;
+
+    private static final char UNREACHED = Character.MAX_VALUE;
+
+    private static final Map<UUID, PlayerTables> tables = new ConcurrentHashMap<>();
+
+    private Landmarks() {
+    }
+
+    public static void register() {
+        ServerTickEvents.END_SERVER_TICK.register(server -> tick());
+    }
+
+    /**
+     * The target player's current table if it's in the mob's dimension, or
+     * null if there is none yet. Asking keeps the player's tables maintained.
+     */
+    public static Table tableFor(Mob mob, Player target) {
+        PlayerTables entry = tables.computeIfAbsent(target.getUUID(), id -> new PlayerTables(target));
+        entry.player = target;
+        entry.lastRequested = target.level().getGameTime();
+        Table table = entry.current;
+        return table != null && table.dimension == mob.level().dimension() ? table : null;
+    }
+
+    /**
+     * Mark tables whose box contains the changed block for a refresh.
+     */
+    public static void onBlockChanged(Level level, BlockPos pos) {
+        if (tables.isEmpty()) {
+            return;
+        }
+        for (PlayerTables entry : tables.values()) {
+            Table table = entry.current;
+            if (table != null && table.dimension == level.dimension() && table.index(pos.asLong()) >= 0) {
+                entry.dirty = true;
+            }
+        }
+    }
+
+    public static void clearAll() {
+        tables.values().forEach(PlayerTables::cancelBuild);
+        tables.clear();
+    }
+
+    private static void tick() {
+        Iterator<PlayerTables> iterator = tables.values().iterator();
+        while (iterator.hasNext()) {
+            PlayerTables entry = iterator.next();
+            Player player = entry.player;
+            long now = player.level().getGameTime();
+            if (player.isRemoved() || now - entry.lastRequested > STALE_TICKS) {
+                entry.cancelBuild();
+                iterator.remove();
+                continue;
+            }
+
+            if (entry.building != null) {
+                if (!entry.building.isFinished()) {
+                    continue;
+                }
+                entry.publish();
+            }
+
+            Table table = entry.current;
+            BlockPos centre = player.blockPosition();
+            if (table == null
+                    || table.dimension != player.level().dimension()
+                    || !table.centre.closerThan(centre, RECENTRE_DISTANCE)
+                    || entry.dirty && now - table.builtAt >= MIN_REFRESH_TICKS) {
+                entry.startBuild(player.level(), centre, now);
+            }
+        }
+    }
+
+    /**
+     * Published distance tables for one box. Immutable, so searches on any thread can read it.
+     */
+    public static final class Table {
+        final ResourceKey<Level> dimension;
+        final BlockPos centre;
+        final long builtAt;
+        private final int minX;
+        private final int minY;
+        private final int minZ;
+        private final int sizeX;
+        private final int sizeY;
+        private final int sizeZ;
+        // distances[landmark][cell], UNREACHED where the landmark can't get to
+        private final char[][] distances;
+
+        Table(ResourceKey<Level> dimension, BlockPos centre, long builtAt, NavSnapshot snapshot, char[][] distances) {
+            this.dimension = dimension;
+            this.centre = centre;
+            this.builtAt = builtAt;
+            this.minX = SectionPos.sectionToBlockCoord(snapshot.minSx());
+            this.minY = SectionPos.sectionToBlockCoord(snapshot.minSy());
+            this.minZ = SectionPos.sectionToBlockCoord(snapshot.minSz());
+            this.sizeX = SectionPos.sectionToBlockCoord(snapshot.sizeX());
+            this.sizeY = SectionPos.sectionToBlockCoord(snapshot.sizeY());
+            this.sizeZ = SectionPos.sectionToBlockCoord(snapshot.sizeZ());
+            this.distances = distances;
+        }
+
+        /**
+         * Lower bounds towards goal for a search starting at start, or null if
+         * either isn't well inside the box or no landmark reaches the goal.
+         * The bounds only hold for a search confined to capture().
+         */
+        public Estimator towards(BlockPos start, BlockPos goal) {
+            if (!isInner(start) || !isInner(goal)) {
+                return null;
+            }
+            int cell = index(goal.asLong());
+            char[] goalDistances = new char[distances.length];
+            boolean reached = false;
+            for (int l = 0; l < distances.length; l++) {
+                goalDistances[l] = distances[l][cell];
+                reached |= goalDistances[l] != UNREACHED;
+            }
+            return reached ? new Estimator(this, goalDistances) : null;
+        }
+
+        /**
+         * A fresh snapshot of exactly the table's box. Server thread only.
+         */
+        public NavSnapshot capture(Level level) {
+            return NavSnapshot.captureArea(level, new BlockPos(minX, minY, minZ),
+                    new BlockPos(minX + sizeX - 1, minY + sizeY - 1, minZ + sizeZ - 1));
+        }
+
+        private boolean isInner(BlockPos pos) {
+            return pos.getX() >= minX + INNER_MARGIN && pos.getX() < minX + sizeX - INNER_MARGIN
+                    && pos.getY() >= minY + INNER_MARGIN && pos.getY() < minY + sizeY - INNER_MARGIN
+                    && pos.getZ() >= minZ + INNER_MARGIN && pos.getZ() < minZ + sizeZ - INNER_MARGIN;
+        }
+
+        int index(long pos) {
+            int x = BlockPos.getX(pos) - minX;
+            int y = BlockPos.getY(pos) - minY;
+            int z = BlockPos.getZ(pos) - minZ;
+            if (x < 0 || y < 0 || z < 0 || x >= sizeX || y >= sizeY || z >= sizeZ) {
+                return -1;
+            }
+            return (y * sizeZ + z) * sizeX + x;
+        }
+    }
+
+    /**
+     * A table bound to one goal.
+     */
+    public static final class Estimator {
+        private final Table table;
+        private final char[] goalDistances;
+
+        Estimator(Table table, char[] goalDistances) {
+            this.table = table;
+            this.goalDistances = goalDistances;
+        }
+
+        /**
+         * Lower bound on the cost from pos to the goal; 0 outside the box.
+         */
+        public int lowerBound(long pos) {
+            int cell = table.index(pos);
+            if (cell < 0) {
+                return 0;
+            }
+            int best = 0;
+            for (int l = 0; l < goalDistances.length; l++) {
+                int toGoal = goalDistances[l];
+                int toCell = table.distances[l][cell];
+                if (toGoal != UNREACHED && toCell != UNREACHED) {
+                    best = Math.max(best, Math.abs(toGoal - toCell));
+                }
+            }
+            return Math.max(0, best - GOAL_SLACK);
+        }
+    }
+
+    /**
+     * The published table of one player and the build replacing it.
+     */
+    static final class PlayerTables {
+        Player player;
+        long lastRequested;
+        volatile Table current;
+        // Blocks in the current table's box changed since its snapshot was captured
+        volatile boolean dirty;
+        Build building;
+        // Scratch arrays, reused by successive builds
+        byte[] cells = new byte[0];
+        char[] nearest = new char[0];
+
+        PlayerTables(Player player) {
+            this.player = player;
+        }
+
+        void startBuild(Level level, BlockPos centre, long now) {
+            int sx = SectionPos.blockToSectionCoord(centre.getX());
+            int sy = SectionPos.blockToSectionCoord(centre.getY());
+            int sz = SectionPos.blockToSectionCoord(centre.getZ());
+            NavSnapshot snapshot = NavSnapshot.captureArea(level,
+                    new BlockPos(SectionPos.sectionToBlockCoord(sx - SECTION_RADIUS_XZ),
+                            SectionPos.sectionToBlockCoord(sy - SECTION_RADIUS_Y),
+                            SectionPos.sectionToBlockCoord(sz - SECTION_RADIUS_XZ)),
+                    new BlockPos(SectionPos.sectionToBlockCoord(sx + SECTION_RADIUS_XZ, 15),
+                            SectionPos.sectionToBlockCoord(sy + SECTION_RADIUS_Y, 15),
+                            SectionPos.sectionToBlockCoord(sz + SECTION_RADIUS_XZ, 15)));
+            dirty = false;
+            building = new Build(this, snapshot, centre, level.dimension(), now);
+            AsyncPathfinder.schedule(building);
+        }
+
+        void publish() {
+            Build finished = building;
+            building = null;
+            if (!finished.cancelled) {
+                current = finished.table();
+            }
+        }
+
+        void cancelBuild() {
+            if (building != null) {
+                building.cancelled = true;
+            }
+        }
+    }
+
+    /**
+     * Budgeted build of one box's tables: classify the cells, then grow a
+     * Dijkstra from each landmark in turn. Step costs are small integers, so
+     * the open set is a ring of buckets (Dial's algorithm) instead of a heap.
+     * The first landmark is the player's cell; each next one is the cell
+     * farthest from all landmarks so far.
+     */
+    static final class Build implements AsyncPathfinder.SlicedJob {
+        final NavSnapshot snapshot;
+        final BlockPos centre;
+        final ResourceKey<Level> dimension;
+        final long startedAt;
+        final int minX;
+        final int minY;
+        final int minZ;
+        final int sizeX;
+        final int sizeY;
+        final int sizeZ;
+        final int cellCount;
+        final byte[] cells;
+        final char[] nearest;
+        final char[][] distances = new char[LANDMARKS][];
+        final IntArrayFIFOQueue[] buckets = new IntArrayFIFOQueue[BUCKETS];
+
+        private int classified;
+        private int landmarks;
+        private char[] growing;
+        private int queued;
+        private int bucketDistance;
+        volatile boolean done;
+        volatile boolean cancelled;
+
+        Build(PlayerTables owner, NavSnapshot snapshot, BlockPos centre, ResourceKey<Level> dimension, long startedAt) {
+            this.snapshot = snapshot;
+            this.centre = centre;
+            this.dimension = dimension;
+            this.startedAt = startedAt;
+            this.minX = SectionPos.sectionToBlockCoord(snapshot.minSx());
+            this.minY = SectionPos.sectionToBlockCoord(snapshot.minSy());
+            this.minZ = SectionPos.sectionToBlockCoord(snapshot.minSz());
+            this.sizeX = SectionPos.sectionToBlockCoord(snapshot.sizeX());
+            this.sizeY = SectionPos.sectionToBlockCoord(snapshot.sizeY());
+            this.sizeZ = SectionPos.sectionToBlockCoord(snapshot.sizeZ());
+            this.cellCount = sizeX * sizeY * sizeZ;
+            if (owner.cells.length < cellCount) {
+                owner.cells = new byte[cellCount];
+                owner.nearest = new char[cellCount];
+            }
+            this.cells = owner.cells;
+            this.nearest = owner.nearest;
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = new IntArrayFIFOQueue();
+            }
+        }
+
+        Table table() {
+            return new Table(dimension, centre, startedAt, snapshot, Arrays.copyOf(distances, landmarks));
+        }
+
+        @Override
+        public void run(int budget) {
+            while (budget > 0 && !cancelled) {
+                if (classified < sizeX * sizeZ) {
+                    classifyColumn(classified++);
+                    budget -= Math.max(1, sizeY / CLASSIFIED_PER_UNIT);
+                    if (classified == sizeX * sizeZ) {
+                        Arrays.fill(nearest, 0, cellCount, UNREACHED);
+                        int x = centre.getX() - minX;
+                        int y = centre.getY() - minY;
+                        int z = centre.getZ() - minZ;
+                        if (x < 0 || y < 0 || z < 0 || x >= sizeX || y >= sizeY || z >= sizeZ) {
+                            done = true; // Player outside the build height: no landmarks
+                            return;
+                        }
+                        startLandmark(index(x, y, z));
+                    }
+                } else if (queued > 0) {
+                    budget -= settleSome(budget);
+                } else {
+                    budget -= cellCount / CLASSIFIED_PER_UNIT;
+                    int next = finishLandmark();
+                    if (next < 0 || landmarks == LANDMARKS) {
+                        done = true;
+                        return;
+                    }
+                    startLandmark(next);
+                }
+            }
+        }
+
+        /**
+         * Classify the cells of one (x, z) column by the blocks at feet and head height.
+         * The head of the top cell is outside the snapshot, so it reads as unloaded, as in a search.
+         */
+        private void classifyColumn(int column) {
+            int x = column % sizeX;
+            int z = column / sizeX;
+            byte feet = classify(snapshot.query(BlockPos.asLong(minX + x, minY, minZ + z)));
+            for (int y = 0; y < sizeY; y++) {
+                byte head = classify(snapshot.query(BlockPos.asLong(minX + x, minY + y + 1, minZ + z)));
+                cells[index(x, y, z)] = (byte) Math.max(feet, head);
+                feet = head;
+            }
+        }
+
+        private static byte classify(int code) {
+            if (code == NavigabilityIndex.UNLOADED) {
+                return BLOCKED;
+            }
+            if ((code & BlockClassCache.PASSABLE) != 0) {
+                return OPEN;
+            }
+            return NavigabilityIndex.hardness(code) < 0 ? BLOCKED : BREAKABLE;
+        }
+
+        private void startLandmark(int cell) {
+            growing = new char[cellCount];
+            Arrays.fill(growing, UNREACHED);
+            distances[landmarks++] = growing;
+            if (cells[cell] == BLOCKED) {
+                return;
+            }
+            growing[cell] = 0;
+            buckets[0].enqueue(cell);
+            queued = 1;
+            bucketDistance = 0;
+        }
+
+        /**
+         * Settle cells of the current landmark's Dijkstra.
+         *
+         * @return budget units used
+         */
+        private int settleSome(int budget) {
+            int limit = budget * SETTLED_PER_UNIT;
+            int count = 0;
+            while (queued > 0 && count < limit) {
+                IntArrayFIFOQueue bucket = buckets[bucketDistance & (BUCKETS - 1)];
+                if (bucket.isEmpty()) {
+                    bucketDistance++;
+                    continue;
+                }
+                int cell = bucket.dequeueInt();
+                queued--;
+                if (growing[cell] != bucketDistance) {
+                    continue; // Queued again with a shorter distance
+                }
+                settle(cell);
+                count++;
+            }
+            return Math.max(1, count / SETTLED_PER_UNIT);
+        }
+
+        private void settle(int cell) {
+            int x = cell % sizeX;
+            int z = cell / sizeX % sizeZ;
+            int y = cell / (sizeX * sizeZ);
+            int base = bucketDistance + 1 + cells[cell] * HALF_BREAK_COST;
+            for (int dy = -1; dy <= 1; dy++) {
+                int ny = y + dy;
+                if (ny < 0 || ny >= sizeY) {
+                    continue;
+                }
+                for (int dz = -1; dz <= 1; dz++) {
+                    int nz = z + dz;
+                    if (nz < 0 || nz >= sizeZ) {
+                        continue;
+                    }
+                    for (int dx = -1; dx <= 1; dx++) {
+                        int nx = x + dx;
+                        if (nx < 0 || nx >= sizeX) {
+                            continue;
+                        }
+                        int neighbor = index(nx, ny, nz);
+                        byte type = cells[neighbor];
+                        int distance = base + type * HALF_BREAK_COST;
+                        if (type != BLOCKED && distance < growing[neighbor]) {
+                            growing[neighbor] = (char) distance;
+                            buckets[distance & (BUCKETS - 1)].enqueue(neighbor);
+                            queued++;
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Fold the finished landmark into the distance-to-nearest-landmark array.
+         *
+         * @return the reached cell farthest from every landmark so far, or -1 if there is none
+         */
+        private int finishLandmark() {
+            int farthest = -1;
+            int farthestDistance = 0;
+            for (int cell = 0; cell < cellCount; cell++) {
+                char distance = (char) Math.min(nearest[cell], growing[cell]);
+                nearest[cell] = distance;
+                if (distance != UNREACHED && distance > farthestDistance) {
+                    farthest = cell;
+                    farthestDistance = distance;
+                }
+            }
+            return farthest;
+        }
+
+        private int index(int x, int y, int z) {
+            return (y * sizeZ + z) * sizeX + x;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return done || cancelled;
+        }
+
+        @Override
+        public void abandon() {
+        }
+    }
+}
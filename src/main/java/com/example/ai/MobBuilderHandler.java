@@ -8,7 +8,6 @@ import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.state.BlockState;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Handles mob block placement to reach elevated targets.
@@ -16,8 +15,7 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class MobBuilderHandler {
 
-    // Track building progress per mob
-    private static final Map<UUID, BuildingState> buildingStates = new ConcurrentHashMap<>();
+    // Building progress and cooldowns are kept in the mob's HuntAgents slot
 
     // Block placement delay (ticks between each block placed) - 20 ticks = 1 second
     private static final int PLACEMENT_DELAY = 20;
@@ -59,7 +57,7 @@ public class MobBuilderHandler {
      * Check if a mob is currently building
      */
     public static boolean isBuilding(Mob mob) {
-        BuildingState state = buildingStates.get(mob.getUUID());
+        BuildingState state = getBuildingState(mob);
         return state != null && !state.isComplete();
     }
 
@@ -80,7 +78,7 @@ public class MobBuilderHandler {
             return;
 
         BuildingState state = new BuildingState(plan, targetPos);
-        buildingStates.put(mob.getUUID(), state);
+        HuntAgents.building[HuntAgents.slotOf(mob)] = state;
 
         // Sync to clients for debug rendering
         BuildPlanData.setBuildPlan(mob.getUUID(), plan);
@@ -90,7 +88,7 @@ public class MobBuilderHandler {
      * Get the target position the mob is currently building towards
      */
     public static BlockPos getPlannedTarget(Mob mob) {
-        BuildingState state = buildingStates.get(mob.getUUID());
+        BuildingState state = getBuildingState(mob);
         return state != null ? state.lockedTargetPos : null;
     }
 
@@ -158,7 +156,7 @@ public class MobBuilderHandler {
             return false;
 
         UUID mobId = mob.getUUID();
-        BuildingState state = buildingStates.get(mobId);
+        BuildingState state = getBuildingState(mob);
 
         // No active build state
         if (state == null) {
@@ -167,8 +165,7 @@ public class MobBuilderHandler {
 
         // Check if building is complete
         if (state.isComplete()) {
-            buildingStates.remove(mobId);
-            BuildPlanData.removeBuildPlan(mobId);
+            stopBuilding(mob);
             markBuildComplete(mob); // Start cooldown to prevent immediate re-building
             return false;
         }
@@ -181,7 +178,7 @@ public class MobBuilderHandler {
             // Still waiting - mob should move toward pillar
             BlockPos nextBlock = state.getNextBlock();
             if (nextBlock != null) {
-                mob.getNavigation().moveTo(
+                NavRequests.moveTo(mob,
                         nextBlock.getX() + 0.5,
                         nextBlock.getY(),
                         nextBlock.getZ() + 0.5,
@@ -192,8 +189,7 @@ public class MobBuilderHandler {
 
         BlockPos nextBlock = state.getNextBlock();
         if (nextBlock == null) {
-            buildingStates.remove(mobId);
-            BuildPlanData.removeBuildPlan(mobId);
+            stopBuilding(mob);
             return false;
         }
 
@@ -201,7 +197,7 @@ public class MobBuilderHandler {
         double distSq = mob.blockPosition().distSqr(nextBlock);
 
         // Refresh debug plan every second to prevent expiry while moving
-        if (mob.tickCount % 20 == 0) {
+        if (HuntScheduler.isDue(mob, HuntScheduler.Task.BUILD_PLAN)) {
             List<BlockPos> remaining = state.blocksToPlace.subList(
                     state.currentIndex,
                     state.blocksToPlace.size());
@@ -211,7 +207,7 @@ public class MobBuilderHandler {
         if (distSq > PLACEMENT_RANGE_SQ) {
             // Mob needs to move closer - reset timer until in range
             state.ticksSinceLastPlace = 0;
-            mob.getNavigation().moveTo(
+            NavRequests.moveTo(mob,
                     nextBlock.getX() + 0.5,
                     nextBlock.getY(),
                     nextBlock.getZ() + 0.5,
@@ -270,52 +266,57 @@ public class MobBuilderHandler {
      * Get the current build state for a mob
      */
     public static BuildingState getBuildingState(Mob mob) {
-        return buildingStates.get(mob.getUUID());
+        int slot = HuntAgents.peek(mob);
+        return slot == HuntAgents.NO_SLOT ? null : HuntAgents.building[slot];
     }
 
     /**
      * Clean up when a mob is removed
      */
     public static void onMobRemoved(Mob mob) {
-        buildingStates.remove(mob.getUUID());
-        BuildPlanData.removeBuildPlan(mob.getUUID());
+        stopBuilding(mob);
     }
 
     /**
      * Clear all building states
      */
     public static void clearAll() {
-        buildingStates.clear();
-        buildCooldowns.clear();
+        HuntAgents.clearBuilding();
         BuildPlanData.clearAll();
     }
 
     // Cooldown tracking - prevent immediate re-building after completion
-    private static final Map<UUID, Long> buildCooldowns = new ConcurrentHashMap<>();
     private static final long BUILD_COOLDOWN_MS = 5000; // 5 seconds before can build again
 
     /**
      * Cancel building for a mob (used when path is found)
      */
     public static void cancelBuilding(Mob mob) {
-        buildingStates.remove(mob.getUUID());
-        BuildPlanData.removeBuildPlan(mob.getUUID());
+        stopBuilding(mob);
     }
 
     /**
      * Check if mob recently completed a build (to prevent immediate re-building)
      */
     public static boolean recentlyBuilt(Mob mob) {
-        Long lastBuild = buildCooldowns.get(mob.getUUID());
-        if (lastBuild == null)
+        int slot = HuntAgents.peek(mob);
+        if (slot == HuntAgents.NO_SLOT || HuntAgents.lastBuildTime[slot] == 0)
             return false;
-        return System.currentTimeMillis() - lastBuild < BUILD_COOLDOWN_MS;
+        return System.currentTimeMillis() - HuntAgents.lastBuildTime[slot] < BUILD_COOLDOWN_MS;
     }
 
     /**
      * Mark that a mob just finished building
      */
     private static void markBuildComplete(Mob mob) {
-        buildCooldowns.put(mob.getUUID(), System.currentTimeMillis());
+        HuntAgents.lastBuildTime[HuntAgents.slotOf(mob)] = System.currentTimeMillis();
+    }
+
+    private static void stopBuilding(Mob mob) {
+        int slot = HuntAgents.peek(mob);
+        if (slot != HuntAgents.NO_SLOT) {
+            HuntAgents.building[slot] = null;
+        }
+        BuildPlanData.removeBuildPlan(mob.getUUID());
     }
 }
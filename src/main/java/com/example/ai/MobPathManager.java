@@ -9,7 +9,11 @@ import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.state.BlockState;
 
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Manages A* pathfinding for all mobs.
@@ -17,27 +21,40 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class MobPathManager {
 
-    // Cache paths per mob UUID
-    private static final Map<UUID, CachedPath> pathCache = new ConcurrentHashMap<>();
+    // Paths, and searches running on the AsyncPathfinder pool (at most one per mob), are kept in the mob's HuntAgents slot
 
     // How often to recalculate paths (in ticks)
     private static final int RECALCULATE_INTERVAL = 40; // 2 seconds
 
-    // Maximum distance to use A* (beyond this, use normal navigation)
+    // Maximum distance to search straight to the target with A*
     private static final double MAX_ASTAR_DISTANCE = 50.0;
+
+    // Beyond MAX_ASTAR_DISTANCE paths are planned over the PortalGraph and followed
+    // leg by leg, up to this distance (the largest hunt range); beyond it, normal navigation
+    private static final double MAX_LONG_RANGE_DISTANCE = 512.0;
+    // Plan the next leg when the mob gets this close to the end of the current one
+    private static final double LEG_REPLAN_DISTANCE = 8.0;
+    // Replan if the mob hasn't moved for this long while not breaking or building
+    private static final int STUCK_REPLAN_TICKS = 60;
+    // Replan a leg early if the target has moved this far since it was planned
+    private static final double LEG_TARGET_DRIFT = 24.0;
     
-    // Global throttling to prevent server overload
-    private static int pathCalcsPerTick = 0;
-    private static long lastTick = 0;
     
     // Swarm Intelligence: Track planned breaches so other mobs can route through them
     public static final Map<BlockPos, Long> plannedBreaches = new ConcurrentHashMap<>();
+    // How long a planned breach is routed through
+    public static final long BREACH_TTL_MS = 15000;
+    // Bumped when a planned breach expires, which can happen on any thread and whenever it's
+    // next looked at; new breaches and break progress are reported to SearchCache by position
+    private static final AtomicInteger breachExpiryEpoch = new AtomicInteger();
 
     /**
      * Register a planned breach at a position
      */
     public static void registerBreach(BlockPos pos) {
-        plannedBreaches.put(pos, System.currentTimeMillis());
+        if (plannedBreaches.put(pos, System.currentTimeMillis()) == null) {
+            SearchCache.onBreakStateChanged(pos);
+        }
     }
 
     /**
@@ -46,86 +63,141 @@ public class MobPathManager {
     public static boolean isPlannedBreach(BlockPos pos) {
         Long timestamp = plannedBreaches.get(pos);
         if (timestamp == null) return false;
-        // Expires after 15 seconds
-        if (System.currentTimeMillis() - timestamp > 15000) {
-            plannedBreaches.remove(pos);
+        if (System.currentTimeMillis() - timestamp > BREACH_TTL_MS) {
+            if (plannedBreaches.remove(pos, timestamp)) {
+                breachExpiryEpoch.incrementAndGet();
+            }
             return false;
         }
         return true;
     }
 
     /**
-     * Cached path data for a mob
+     * Count of planned breaches that have expired so far.
+     */
+    public static int breachExpiryEpoch() {
+        return breachExpiryEpoch.get();
+    }
+
+    /**
+     * Cached path data for a mob. How far along it the mob is lives in the
+     * mob's HuntAgents slot, reset whenever a new path is set there.
      */
     public static class CachedPath {
-        public final List<BlockPos> path;
+        public final PackedPath path;
         public final String strategy;
         public final long timestamp;
-        public int currentNodeIndex;
         public final BlockPos targetPos;
-        public final Map<BlockPos, BlockPos> buildActions;
-        public int placeDelay = 0;
-        
-        // Stuck detection
-        public BlockPos lastPos = null;
-        public int stuckTicks = 0;
-        public long lastCheckTime = 0;
+        // End of this leg of a long-range plan, or null if the path leads to the target
+        public final BlockPos legGoal;
+        // The search found the target walled in, so no walking route will turn up while it stays put
+        public boolean targetEnclosed;
+        // Sections the path crosses; it is replanned once one of them changes
+        public final SectionVersions dependencies;
+        // HuntAgents slot of the mob following it
+        final int slot;
+
+        /**
+         * version is the NavigabilityIndex level version the path was planned at.
+         */
+        public CachedPath(int slot, PackedPath path, BlockPos targetPos, String strategy, int version) {
+            this(slot, path, targetPos, strategy, null, version);
+        }
 
-        public CachedPath(List<BlockPos> path, BlockPos targetPos, Map<BlockPos, BlockPos> buildActions, String strategy) {
+        public CachedPath(int slot, PackedPath path, BlockPos targetPos, String strategy, BlockPos legGoal, int version) {
+            this.slot = slot;
             this.path = path;
+            this.dependencies = SectionVersions.of(path, version);
+            this.legGoal = legGoal;
             this.strategy = strategy;
             this.timestamp = System.currentTimeMillis();
-            this.currentNodeIndex = 0;
             this.targetPos = targetPos;
-            this.buildActions = buildActions != null ? buildActions : Collections.emptyMap();
-            this.lastCheckTime = timestamp;
         }
         
         public void checkStuck(Mob mob, Player target) {
-            BlockPos currentPos = mob.blockPosition();
-            if (lastPos != null && currentPos.equals(lastPos)) {
-                stuckTicks++;
+            long currentPos = mob.blockPosition().asLong();
+            if (HuntAgents.lastPos[slot] == currentPos) {
+                int stuckTicks = ++HuntAgents.stuckTicks[slot];
                 if (stuckTicks > 20 && stuckTicks % 100 == 0) { // Log every 5s after being stuck for 1s
                      if (ChallengeMod.isAStarDebugEnabled() && mob.distanceTo(target) <= 20.0) {
                          BlockPos next = getNextNode();
-                         String buildInfo = (buildActions.containsKey(next) ? " (Needs Build at " + buildActions.get(next) + ")" : "");
+                         BlockPos build = getBuildTarget();
+                         String buildInfo = (build != null ? " (Needs Build at " + build + ")" : "");
                          ChallengeMod.LOGGER.warn("[Stuck] Mob {} stuck at {} for {} ticks. Target node: {}{}", 
-                             mob.getUUID().toString().substring(0, 4), currentPos, stuckTicks, next, buildInfo);
+                             mob.getUUID().toString().substring(0, 4), mob.blockPosition(), stuckTicks, next, buildInfo);
                      }
                 }
             } else {
-                stuckTicks = 0;
-                lastPos = currentPos;
+                HuntAgents.stuckTicks[slot] = 0;
+                HuntAgents.lastPos[slot] = currentPos;
             }
         }
 
-        public boolean isExpired() {
-            // Paths last longer now (10-14 seconds) to spread load
-            long offset = Math.abs(this.hashCode()) % 4000;
-            return System.currentTimeMillis() - timestamp > (10000 + offset);
+        /**
+         * The terrain along the path changed since it was planned, or the mob
+         * is stuck on it without breaking or building anything.
+         */
+        public boolean isStale(Mob mob) {
+            return !dependencies.isCurrent(mob.level())
+                    || HuntAgents.stuckTicks[slot] > STUCK_REPLAN_TICKS && !HuntAgents.breaking[slot] && HuntAgents.placeDelay[slot] == 0;
         }
 
         public BlockPos getNextNode() {
-            if (currentNodeIndex >= path.size()) {
+            int cursor = HuntAgents.cursor[slot];
+            if (cursor >= path.size()) {
                 return null;
             }
-            return path.get(currentNodeIndex);
+            return path.get(cursor);
         }
         
         public BlockPos getFinalNode() {
-            if (path.isEmpty()) return null;
-            return path.get(path.size() - 1);
+            return path.last();
+        }
+
+        /**
+         * Block to place before stepping onto the next node, or null.
+         */
+        public BlockPos getBuildTarget() {
+            int cursor = HuntAgents.cursor[slot];
+            if (cursor >= path.size()) {
+                return null;
+            }
+            return path.buildTarget(cursor);
         }
 
         public void advanceNode() {
-            currentNodeIndex++;
+            HuntAgents.cursor[slot]++;
         }
 
         public boolean isComplete() {
-            return currentNodeIndex >= path.size();
+            return HuntAgents.cursor[slot] >= path.size();
+        }
+    }
+
+    /**
+     * Outcome of the layered search for one mob
+     */
+    public static class SearchOutcome {
+        public final AStarPathfinder.PathResult result;
+        public final String strategy;
+        public final BlockPos targetPos;
+        // Set for long-range searches: the end of the leg that was searched
+        public final BlockPos legGoal;
+        // NavigabilityIndex level version of the snapshot that was searched
+        public final int version;
+
+        public SearchOutcome(AStarPathfinder.PathResult result, String strategy, BlockPos targetPos, BlockPos legGoal, int version) {
+            this.result = result;
+            this.strategy = strategy;
+            this.targetPos = targetPos;
+            this.legGoal = legGoal;
+            this.version = version;
         }
     }
 
+    // Strategy label of a path, indexed by its AStarPathfinder.LAYER_*
+    static final String[] STRATEGY_NAMES = { "Standard", "SoftBreak", "Building", "HardBreak" };
+
     /**
      * Update pathfinding for a mob.
      * 
@@ -133,8 +205,9 @@ public class MobPathManager {
      */
     public static boolean updatePathfinding(Mob mob, Player target) {
         if (!ChallengeMod.isAStarEnabled() || target == null || target.isCreative() || target.isSpectator()) {
-            if (pathCache.containsKey(mob.getUUID())) {
-                pathCache.remove(mob.getUUID());
+            int slot = HuntAgents.peek(mob);
+            if (slot != HuntAgents.NO_SLOT && HuntAgents.paths[slot] != null) {
+                HuntAgents.clearPath(slot);
                 clearClientPath(mob);
                 BuildPlanData.removeBuildPlan(mob.getUUID());
             }
@@ -144,118 +217,111 @@ public class MobPathManager {
         if (mob.level().isClientSide) {
             return false;
         }
+        int slot = HuntAgents.slotOf(mob);
         
-        // Update throttling counter
-        long currentTick = mob.level().getGameTime();
-        if (currentTick != lastTick) {
-            lastTick = currentTick;
-            pathCalcsPerTick = 0;
-        }
-
         double distance = mob.distanceTo(target);
 
         // For very close ranges, don't use A*
         if (distance < 1.5) {
-            pathCache.remove(mob.getUUID());
+            HuntAgents.clearPath(slot);
             return false;
         }
 
         // For very long ranges, don't use A*
-        if (distance > MAX_ASTAR_DISTANCE) {
-            pathCache.remove(mob.getUUID());
+        if (distance > MAX_LONG_RANGE_DISTANCE) {
+            HuntAgents.clearPath(slot);
             return false;
         }
 
-        CachedPath cached = pathCache.get(mob.getUUID());
+        CachedPath cached = HuntAgents.paths[slot];
         BlockPos targetPos = target.blockPosition();
 
+        // Install the result of a finished background search
+        CompletableFuture<SearchOutcome> pending = HuntAgents.searches[slot];
+        if (pending != null && pending.isDone()) {
+            HuntAgents.searches[slot] = null;
+            SearchOutcome outcome = getOutcome(mob, pending);
+            if (outcome != null) {
+                if (!installPath(mob, slot, cached, outcome)) {
+                    return false;
+                }
+                cached = HuntAgents.paths[slot];
+            }
+        }
+
         // Check if we need to recalculate the path
         boolean needsRecalculation = cached == null
-                || cached.isExpired()
+                || cached.isStale(mob)
                 || cached.isComplete();
         
         if (cached != null && !needsRecalculation) {
-            // Target moved far from path end?
-            BlockPos finalNode = cached.getFinalNode();
-            if (finalNode != null && !finalNode.closerThan(targetPos, 3.5)) {
-                needsRecalculation = true;
+            if (cached.legGoal != null) {
+                // Long-range leg: plan the next one before this runs out, or sooner if the target moved on
+                if (mob.blockPosition().closerThan(cached.getFinalNode(), LEG_REPLAN_DISTANCE)
+                        || !cached.targetPos.closerThan(targetPos, LEG_TARGET_DRIFT)
+                        || distance <= MAX_ASTAR_DISTANCE) {
+                    needsRecalculation = true;
+                }
+            } else {
+                // Target moved far from path end?
+                BlockPos finalNode = cached.getFinalNode();
+                if (finalNode != null && !finalNode.closerThan(targetPos, 3.5)) {
+                    needsRecalculation = true;
+                }
             }
-            
-            // Periodically check for easier paths if currently breaking/building
-            if (!cached.strategy.equals("Standard") && System.currentTimeMillis() - cached.lastCheckTime > 2000) {
+        }
+
+        // A path that's only rechecked may be kept if the search finds nothing easier;
+        // stale, finished or drifted paths are always replaced by the new outcome
+        boolean recheckOnly = false;
+        if (cached != null && !needsRecalculation) {
+            // Periodically check for easier paths if currently breaking/building, on the mob's slot and not right after the last check
+            if (!cached.strategy.equals("Standard") && !cached.targetEnclosed && System.currentTimeMillis() - HuntAgents.lastCheckTime[slot] > 1000
+                    && HuntScheduler.isDue(mob, HuntScheduler.Task.RECHECK)) {
                 needsRecalculation = true;
+                recheckOnly = true;
             }
         }
 
         if (needsRecalculation) {
-            // Throttling Check
-            if (pathCalcsPerTick < 2) {
-                if (mob.tickCount % 10 == 0 || cached == null) {
-                    pathCalcsPerTick++;
-                    
-                    AStarPathfinder.PathResult result = AStarPathfinder.findPath(mob, targetPos, false);
-                    String strategy = "Standard";
-
-                    if (!result.found) {
-                        AStarPathfinder.PathResult softBreakResult = AStarPathfinder.findPath(mob, mob.blockPosition(), targetPos, true, false, 1.0f);
-                        if (softBreakResult.found || (softBreakResult.isPartial && !result.isPartial)) {
-                            result = softBreakResult;
-                            strategy = "SoftBreak";
-                        }
-                    }
-                    
-                    if (!result.found) {
-                         AStarPathfinder.PathResult buildResult = AStarPathfinder.findPath(mob, mob.blockPosition(), targetPos, true, true);
-                         if (buildResult.found || (buildResult.isPartial && !result.isPartial)) {
-                             result = buildResult;
-                             strategy = "Building";
-                         }
-                    }
-
-                    if (!result.found) {
-                        AStarPathfinder.PathResult destructiveResult = AStarPathfinder.findPath(mob, targetPos, true);
-                        if (destructiveResult.found || (destructiveResult.isPartial && !result.isPartial)) {
-                            result = destructiveResult;
-                            strategy = "HardBreak";
-                        }
-                    }
-
-                    if (result.found && !result.path.isEmpty()) {
-                        boolean keepOldPath = (cached != null && cached.strategy.equals(strategy));
-                        if (keepOldPath) {
-                            cached.lastCheckTime = System.currentTimeMillis();
-                        } else {
-                            cached = new CachedPath(result.path, targetPos, result.buildActions, strategy);
-                            pathCache.put(mob.getUUID(), cached);
-                            
-                            // Broadcast breaches
-                            for (BlockPos node : result.path) {
-                                if (isSolid(mob.level(), node)) registerBreach(node);
-                                if (isSolid(mob.level(), node.above())) registerBreach(node.above());
-                            }
-
-                            syncPathToClients(mob, result.path);
-                            if (!result.buildActions.isEmpty()) {
-                                BuildPlanData.setBuildPlan(mob.getUUID(), new ArrayList<>(result.buildActions.values()));
-                            } else {
-                                BuildPlanData.removeBuildPlan(mob.getUUID());
-                            }
-                        }
-                    } else if (result.isPartial && !result.path.isEmpty()) {
-                        cached = new CachedPath(result.path, targetPos, result.buildActions, strategy);
-                        pathCache.put(mob.getUUID(), cached);
-                        syncPathToClients(mob, result.path);
+            // One search in flight per mob; AsyncPathfinder's per-tick budget and priorities bound the total work
+            if (HuntAgents.searches[slot] == null) {
+                // Walking route from the target's shared flow field, if the mob is inside it
+                PackedPath fieldPath = distance <= MAX_ASTAR_DISTANCE ? FlowField.pathFrom(mob, target) : null;
+                // Otherwise a path another mob nearby just searched
+                SharedPaths.Joined shared = fieldPath == null && distance <= MAX_ASTAR_DISTANCE ? SharedPaths.join(mob, targetPos) : null;
+                // What a search from this region to the target's just failed at, if anything
+                int failedLayer = distance <= MAX_ASTAR_DISTANCE ? FailedSearches.failedLayer(mob.level(), mob.blockPosition(), targetPos) : -1;
+                if (fieldPath != null && fieldPath.size() > 1) {
+                    cached = new CachedPath(slot, fieldPath, targetPos, "Standard", FlowField.versionOf(target));
+                    HuntAgents.setPath(slot, cached);
+                    syncPathToClients(mob, fieldPath);
+                    BuildPlanData.removeBuildPlan(mob.getUUID());
+                } else if (shared != null) {
+                    cached = new CachedPath(slot, shared.path, targetPos, shared.strategy, shared.version);
+                    HuntAgents.setPath(slot, cached);
+                    syncPathToClients(mob, shared.path);
+                    if (shared.path.hasPlacements()) {
+                        BuildPlanData.setBuildPlan(mob.getUUID(), shared.path);
                     } else {
-                        pathCache.remove(mob.getUUID());
-                        clearClientPath(mob);
                         BuildPlanData.removeBuildPlan(mob.getUUID());
-                        return false;
                     }
+                } else if (failedLayer >= AStarPathfinder.LAYER_HARD_BREAK) {
+                    // Nothing got there from here a moment ago; don't repeat the search until something changes
+                } else {
+                    boolean walkUnreachable = distance <= MAX_ASTAR_DISTANCE && (failedLayer >= AStarPathfinder.LAYER_WALK
+                            || Reachability.isWalkUnreachable(mob, target) || FlowField.isWalkUnreachable(mob, target));
+                    Landmarks.Table landmarks = distance <= MAX_ASTAR_DISTANCE ? Landmarks.tableFor(mob, target) : null;
+                    long ticksSincePath = cached == null ? Long.MAX_VALUE : (System.currentTimeMillis() - cached.timestamp) / 50;
+                    double priority = AsyncPathfinder.pathPriority(distance, ticksSincePath, cached != null && HuntAgents.stuckTicks[slot] > 20);
+                    HuntAgents.searches[slot] = AsyncPathfinder.submit(mob, targetPos, distance > MAX_ASTAR_DISTANCE, walkUnreachable,
+                            landmarks, priority);
+                    HuntAgents.recheckOnly[slot] = recheckOnly;
                 }
             }
             
             if (cached != null) {
-                cached.lastCheckTime = System.currentTimeMillis();
+                HuntAgents.lastCheckTime[slot] = System.currentTimeMillis();
             } else {
                 return false;
             }
@@ -266,25 +332,26 @@ public class MobPathManager {
             cached.checkStuck(mob, target);
             BlockPos nextNode = cached.getNextNode();
             
-            if (mob.tickCount % 20 == 0 && !cached.buildActions.isEmpty()) {
-                 BuildPlanData.setBuildPlan(mob.getUUID(), new ArrayList<>(cached.buildActions.values()));
+            if (cached.path.hasPlacements() && HuntScheduler.isDue(mob, HuntScheduler.Task.BUILD_PLAN)) {
+                 BuildPlanData.setBuildPlan(mob.getUUID(), cached.path);
             }
             
             if (nextNode != null) {
-                BlockPos buildTarget = cached.buildActions.get(nextNode);
+                BlockPos buildTarget = cached.getBuildTarget();
                 if (buildTarget != null) {
                      BlockState state = mob.level().getBlockState(buildTarget);
                      if (state.canBeReplaced()) {
                          mob.getLookControl().setLookAt(buildTarget.getX() + 0.5, buildTarget.getY() + 0.5, buildTarget.getZ() + 0.5);
                          double distSq = mob.blockPosition().distSqr(buildTarget);
                          if (distSq <= 4.0) {
-                             if (cached.placeDelay > 0) {
-                                 cached.placeDelay--;
+                             if (HuntAgents.placeDelay[slot] > 0) {
+                                 HuntAgents.placeDelay[slot]--;
                                  mob.getNavigation().stop();
                                  return true;
                              }
                              mob.level().setBlock(buildTarget, net.minecraft.world.level.block.Blocks.COBBLESTONE.defaultBlockState(), 3);
-                             cached.placeDelay = 30;
+                             cached.dependencies.refresh(mob.level()); // Placed as planned
+                             HuntAgents.placeDelay[slot] = 30;
                              return true;
                          }
                      }
@@ -308,10 +375,16 @@ public class MobPathManager {
                     }
 
                     if (isBlocked) {
+                        HuntAgents.breaking[slot] = true;
                         mob.getLookControl().setLookAt(nextNode.getX() + 0.5, nextNode.getY() + 0.5, nextNode.getZ() + 0.5);
                         mob.getNavigation().stop();
                         return true;
                     }
+                    if (HuntAgents.breaking[slot]) {
+                        // Broken through as planned
+                        HuntAgents.breaking[slot] = false;
+                        cached.dependencies.refresh(mob.level());
+                    }
 
                     double speed = ChallengeMod.getSpeedMultiplier();
                     if (nextNode.getY() < mob.getY() - 0.2) speed *= 0.5;
@@ -327,12 +400,77 @@ public class MobPathManager {
         return false;
     }
 
+    private static SearchOutcome getOutcome(Mob mob, CompletableFuture<SearchOutcome> pending) {
+        try {
+            return pending.join();
+        } catch (CancellationException e) {
+            return null;
+        } catch (CompletionException e) {
+            ChallengeMod.LOGGER.warn("[A*] Path search for mob {} failed", mob.getUUID(), e.getCause());
+            return null;
+        }
+    }
+
+    /**
+     * Install a search outcome as the mob's path.
+     *
+     * @return false if the search found nothing and the path was dropped
+     */
+    private static boolean installPath(Mob mob, int slot, CachedPath cached, SearchOutcome outcome) {
+        AStarPathfinder.PathResult result = outcome.result;
+        String strategy = outcome.strategy;
+        BlockPos targetPos = outcome.targetPos;
+
+        if (result.found && !result.path.isEmpty()) {
+            if (outcome.legGoal == null) {
+                SharedPaths.offer(mob.level(), targetPos, result.path, strategy, result.layer, outcome.version);
+            }
+            // A recheck that found nothing easier keeps the path the mob is on, as long as it's still good.
+            // Otherwise, and always for legs (the new one continues where the old one ends), the new path replaces it.
+            boolean keepOldPath = HuntAgents.recheckOnly[slot] && cached != null && cached.strategy.equals(strategy)
+                    && cached.legGoal == null && outcome.legGoal == null
+                    && !cached.isStale(mob) && !cached.isComplete() && cached.getFinalNode().closerThan(targetPos, 3.5);
+            if (keepOldPath) {
+                HuntAgents.lastCheckTime[slot] = System.currentTimeMillis();
+            } else {
+                cached = new CachedPath(slot, result.path, targetPos, strategy, outcome.legGoal, outcome.version);
+                cached.targetEnclosed = result.enclosed;
+                HuntAgents.setPath(slot, cached);
+                
+                // Broadcast breaches
+                for (int i = 0; i < result.path.size(); i++) {
+                    if (!result.path.has(i, PackedPath.BREAK)) continue;
+                    BlockPos node = result.path.get(i);
+                    if (isSolid(mob.level(), node)) registerBreach(node);
+                    if (isSolid(mob.level(), node.above())) registerBreach(node.above());
+                }
+
+                syncPathToClients(mob, result.path);
+                if (result.path.hasPlacements()) {
+                    BuildPlanData.setBuildPlan(mob.getUUID(), result.path);
+                } else {
+                    BuildPlanData.removeBuildPlan(mob.getUUID());
+                }
+            }
+        } else if (result.isPartial && !result.path.isEmpty()) {
+            cached = new CachedPath(slot, result.path, targetPos, strategy, outcome.legGoal, outcome.version);
+            HuntAgents.setPath(slot, cached);
+            syncPathToClients(mob, result.path);
+        } else {
+            HuntAgents.clearPath(slot);
+            clearClientPath(mob);
+            BuildPlanData.removeBuildPlan(mob.getUUID());
+            return false;
+        }
+        return true;
+    }
+
     private static boolean isSolid(Level level, BlockPos pos) {
         BlockState state = level.getBlockState(pos);
         return state.blocksMotion();
     }
 
-    private static void syncPathToClients(Mob mob, List<BlockPos> path) {
+    private static void syncPathToClients(Mob mob, PackedPath path) {
         PathDebugData.setMobPath(mob.getUUID(), path);
     }
 
@@ -340,19 +478,29 @@ public class MobPathManager {
         PathDebugData.removeMobPath(mob.getUUID());
     }
 
+    /**
+     * Called when a mob is unloaded: drops its debug data and frees its HuntAgents slot, cancelling its search.
+     */
     public static void onMobRemoved(Mob mob) {
-        pathCache.remove(mob.getUUID());
         PathDebugData.removeMobPath(mob.getUUID());
         MobBuilderHandler.onMobRemoved(mob);
+        HuntAgents.release(mob);
     }
 
     public static void clearAll() {
-        pathCache.clear();
+        HuntAgents.clearAll();
+        FlowField.clearAll();
+        Landmarks.clearAll();
+        SharedPaths.clearAll();
+        SearchCache.clearAll();
+        FailedSearches.clearAll();
+        Reachability.clearAll();
         PathDebugData.clearAll();
         MobBuilderHandler.clearAll();
     }
 
     public static CachedPath getCachedPath(Mob mob) {
-        return pathCache.get(mob.getUUID());
+        int slot = HuntAgents.peek(mob);
+        return slot == HuntAgents.NO_SLOT ? null : HuntAgents.paths[slot];
     }
 }
\ No newline at end of file
@@ -0,0 +1,114 @@
+package com.example.ai;
+
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.Mob;
+import net.minecraft.world.entity.ai.navigation.PathNavigation;
+import net.minecraft.world.level.pathfinder.Path;
+
+/**
+ * Coalesces the vanilla navigation requests the hunt AI makes. Each moveTo
+ * can start a fresh vanilla path computation, and the hunt step asks for the
+ * same goal every step; a request is only passed on when the goal moved far
+ * enough, the speed changed, or the current path is done, stuck or was
+ * replaced by something else. Server thread only.
+ */
+public final class NavRequests {
+
+    // Re-issue once the goal moved this far, or this fraction of the distance to it if further
+    private static final double MIN_DRIFT = 1.5;
+    private static final double DRIFT_FRACTION = 0.1;
+
+    // Since the last resetStats()
+    private static int issued = 0;
+    private static int suppressed = 0;
+
+    private NavRequests() {
+    }
+
+    /**
+     * Implemented by the Mob mixin: the last request passed on for this mob.
+     */
+    public interface Requester {
+        Request challengemod$navRequest();
+    }
+
+    /**
+     * The last request passed on to a mob's navigation.
+     */
+    public static final class Request {
+        double x;
+        double y;
+        double z;
+        double speed;
+        // Path the request started, to notice when something else replaced it
+        Path path;
+    }
+
+    /**
+     * Move mob towards target, unless it's already on its way there.
+     */
+    public static void moveTo(Mob mob, Entity target, double speed) {
+        Request request = requestOf(mob);
+        if (request != null && !needsReissue(mob, request, target.getX(), target.getY(), target.getZ(), speed)) {
+            suppressed++;
+            return;
+        }
+        mob.getNavigation().moveTo(target, speed);
+        remember(mob, request, target.getX(), target.getY(), target.getZ(), speed);
+    }
+
+    /**
+     * Move mob towards a position, unless it's already on its way there.
+     */
+    public static void moveTo(Mob mob, double x, double y, double z, double speed) {
+        Request request = requestOf(mob);
+        if (request != null && !needsReissue(mob, request, x, y, z, speed)) {
+            suppressed++;
+            return;
+        }
+        mob.getNavigation().moveTo(x, y, z, speed);
+        remember(mob, request, x, y, z, speed);
+    }
+
+    public static String stats() {
+        int total = issued + suppressed;
+        return String.format("navigation %d issued, %d suppressed (%.0f%%)", issued, suppressed,
+                total == 0 ? 0.0 : suppressed * 100.0 / total);
+    }
+
+    public static void resetStats() {
+        issued = 0;
+        suppressed = 0;
+    }
+
+    private static Request requestOf(Mob mob) {
+        return mob instanceof Requester requester ? requester.challengemod$navRequest() : null;
+    }
+
+    private static boolean needsReissue(Mob mob, Request request, double x, double y, double z, double speed) {
+        PathNavigation navigation = mob.getNavigation();
+        if (request.path == null || navigation.getPath() != request.path || navigation.isDone() || navigation.isStuck()) {
+            return true;
+        }
+        if (speed != request.speed) {
+            return true;
+        }
+        double dx = x - request.x;
+        double dy = y - request.y;
+        double dz = z - request.z;
+        double drift = Math.max(MIN_DRIFT, DRIFT_FRACTION * Math.sqrt(mob.distanceToSqr(x, y, z)));
+        return dx * dx + dy * dy + dz * dz > drift * drift;
+    }
+
+    private static void remember(Mob mob, Request request, double x, double y, double z, double speed) {
+        issued++;
+        if (request == null) {
+            return;
+        }
+        request.x = x;
+        request.y = y;
+        request.z = z;
+        request.speed = speed;
+        request.path = mob.getNavigation().getPath();
+    }
+}
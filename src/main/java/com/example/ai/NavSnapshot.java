@@ -0,0 +1,235 @@
+package com.example.ai;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.Level;
+
+/**
+ * Immutable view of the NavigabilityIndex around one search.
+ * Captured on the server thread, it holds the index sections covering a box
+ * around the start and target. The index copies a section before patching it
+ * once a snapshot references it, so a snapshot never changes after capture
+ * and can be searched from any thread. Positions outside the box read as
+ * unloaded, which keeps the search inside it.
+ */
+public final class NavSnapshot {
+
+    // Extra room around the start/target box for detours, in blocks
+    private static final int HORIZONTAL_MARGIN = 24;
+    private static final int VERTICAL_MARGIN = 16;
+
+    // Wide snapshots: new sections built per capture along the straight line to the target
+    private static final int LINE_BUILD_BUDGET = 24;
+
+    private final int minBuildY;
+    private final int maxBuildY; // exclusive
+    private final int minSx;
+    private final int minSy;
+    private final int minSz;
+    private final int sizeX;
+    private final int sizeY;
+    private final int sizeZ;
+    // Indexed by ((sy * sizeZ) + sz) * sizeX + sx, null = unloaded
+    private final NavigabilityIndex.SectionNav[] sections;
+    // NavigabilityIndex level version at capture
+    private int version;
+
+    private NavSnapshot(int minBuildY, int maxBuildY, int minSx, int minSy, int minSz, int sizeX, int sizeY, int sizeZ) {
+        this.minBuildY = minBuildY;
+        this.maxBuildY = maxBuildY;
+        this.minSx = minSx;
+        this.minSy = minSy;
+        this.minSz = minSz;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.sections = new NavigabilityIndex.SectionNav[sizeX * sizeY * sizeZ];
+    }
+
+    /**
+     * Snapshot of the given sections (indexed as by slot()), whose minimum
+     * corner is section (minSx, minSy, minSz), for terrain that isn't in a level.
+     */
+    static NavSnapshot of(int minBuildY, int maxBuildY, int minSx, int minSy, int minSz, int sizeX, int sizeY, int sizeZ,
+            NavigabilityIndex.SectionNav[] sections) {
+        NavSnapshot snapshot = new NavSnapshot(minBuildY, maxBuildY, minSx, minSy, minSz, sizeX, sizeY, sizeZ);
+        System.arraycopy(sections, 0, snapshot.sections, 0, snapshot.sections.length);
+        return snapshot;
+    }
+
+    /**
+     * Capture the sections a search from start to target can reach. Server thread only.
+     */
+    public static NavSnapshot capture(Level level, BlockPos start, BlockPos target) {
+        return shareAll(level, allocate(level, start, target, HORIZONTAL_MARGIN, VERTICAL_MARGIN));
+    }
+
+    /**
+     * Capture the sections covering the box from min to max, with no margin
+     * around it. Server thread only.
+     */
+    public static NavSnapshot captureArea(Level level, BlockPos min, BlockPos max) {
+        return shareAll(level, allocate(level, min, max, 0, 0));
+    }
+
+    private static NavSnapshot shareAll(Level level, NavSnapshot snapshot) {
+        for (int sy = 0; sy < snapshot.sizeY; sy++) {
+            for (int sz = 0; sz < snapshot.sizeZ; sz++) {
+                for (int sx = 0; sx < snapshot.sizeX; sx++) {
+                    NavigabilityIndex.indexSection(level, snapshot.minSx + sx, snapshot.minSy + sy, snapshot.minSz + sz);
+                }
+            }
+        }
+        return shareIndexed(level, snapshot);
+    }
+
+    /**
+     * Capture for a long-range query. Sections within buildRadius blocks of the
+     * start are captured as usual; further out only sections that are already
+     * indexed are taken (plus a few along the straight line), so the capture
+     * cost doesn't grow with the area of the box. Server thread only.
+     */
+    public static NavSnapshot captureWide(Level level, BlockPos start, BlockPos target, int buildRadius) {
+        NavSnapshot snapshot = allocate(level, start, target, HORIZONTAL_MARGIN, VERTICAL_MARGIN);
+        int startSx = SectionPos.blockToSectionCoord(start.getX());
+        int startSz = SectionPos.blockToSectionCoord(start.getZ());
+        int radius = SectionPos.blockToSectionCoord(buildRadius + HORIZONTAL_MARGIN) + 1;
+        for (int sy = 0; sy < snapshot.sizeY; sy++) {
+            for (int sz = 0; sz < snapshot.sizeZ; sz++) {
+                for (int sx = 0; sx < snapshot.sizeX; sx++) {
+                    int absX = snapshot.minSx + sx;
+                    int absZ = snapshot.minSz + sz;
+                    if (Math.abs(absX - startSx) <= radius && Math.abs(absZ - startSz) <= radius) {
+                        NavigabilityIndex.indexSection(level, absX, snapshot.minSy + sy, absZ);
+                    }
+                }
+            }
+        }
+
+        // Index a few missing sections along the direct line so the planner has more than guesses
+        int budget = LINE_BUILD_BUDGET;
+        double length = Math.sqrt(start.distSqr(target));
+        for (double d = 0; d <= length && budget > 0; d += 16.0) {
+            double t = d / length;
+            int sx = SectionPos.blockToSectionCoord((int) Math.floor(start.getX() + (target.getX() - start.getX()) * t)) - snapshot.minSx;
+            int sy = SectionPos.blockToSectionCoord((int) Math.floor(start.getY() + (target.getY() - start.getY()) * t)) - snapshot.minSy;
+            int sz = SectionPos.blockToSectionCoord((int) Math.floor(start.getZ() + (target.getZ() - start.getZ()) * t)) - snapshot.minSz;
+            for (int dy = -1; dy <= 1 && budget > 0; dy++) {
+                if (snapshot.contains(sx, sy + dy, sz)
+                        && !NavigabilityIndex.isIndexed(level, snapshot.minSx + sx, snapshot.minSy + sy + dy, snapshot.minSz + sz)) {
+                    NavigabilityIndex.indexSection(level, snapshot.minSx + sx, snapshot.minSy + sy + dy, snapshot.minSz + sz);
+                    budget--;
+                }
+            }
+        }
+        return shareIndexed(level, snapshot);
+    }
+
+    /**
+     * Take every section of the box that is indexed by now. Only called once
+     * all the capture's sections are built: building a section with danger in
+     * it updates the danger distances of its neighbours, and a neighbour that
+     * was already shared would get the update in a copy the snapshot doesn't hold.
+     */
+    private static NavSnapshot shareIndexed(Level level, NavSnapshot snapshot) {
+        for (int sy = 0; sy < snapshot.sizeY; sy++) {
+            for (int sz = 0; sz < snapshot.sizeZ; sz++) {
+                for (int sx = 0; sx < snapshot.sizeX; sx++) {
+                    snapshot.sections[snapshot.slot(sx, sy, sz)] = NavigabilityIndex.shareIndexedSection(level,
+                            snapshot.minSx + sx, snapshot.minSy + sy, snapshot.minSz + sz);
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    private static NavSnapshot allocate(Level level, BlockPos start, BlockPos target, int horizontalMargin, int verticalMargin) {
+        int minSx = SectionPos.blockToSectionCoord(Math.min(start.getX(), target.getX()) - horizontalMargin);
+        int maxSx = SectionPos.blockToSectionCoord(Math.max(start.getX(), target.getX()) + horizontalMargin);
+        int minSz = SectionPos.blockToSectionCoord(Math.min(start.getZ(), target.getZ()) - horizontalMargin);
+        int maxSz = SectionPos.blockToSectionCoord(Math.max(start.getZ(), target.getZ()) + horizontalMargin);
+        int minSy = Math.max(level.getMinSection(),
+                SectionPos.blockToSectionCoord(Math.min(start.getY(), target.getY()) - verticalMargin));
+        int maxSy = Math.min(level.getMaxSection() - 1,
+                SectionPos.blockToSectionCoord(Math.max(start.getY(), target.getY()) + verticalMargin));
+        NavSnapshot snapshot = new NavSnapshot(
+                SectionPos.sectionToBlockCoord(level.getMinSection()),
+                SectionPos.sectionToBlockCoord(level.getMaxSection()),
+                minSx, minSy, minSz,
+                maxSx - minSx + 1, Math.max(0, maxSy - minSy + 1), maxSz - minSz + 1);
+        snapshot.version = NavigabilityIndex.levelVersion(level);
+        return snapshot;
+    }
+
+    /**
+     * NavigabilityIndex.levelVersion() when the snapshot was captured; a path
+     * searched on it reflects every change up to this version.
+     */
+    public int version() {
+        return version;
+    }
+
+    public boolean isOutsideBuildHeight(int y) {
+        return y < minBuildY || y >= maxBuildY;
+    }
+
+    /**
+     * Same contract as NavigabilityIndex.query(), against the captured sections.
+     */
+    public int query(long pos) {
+        int x = BlockPos.getX(pos);
+        int y = BlockPos.getY(pos);
+        int z = BlockPos.getZ(pos);
+        if (isOutsideBuildHeight(y)) {
+            return NavigabilityIndex.AIR_CODE;
+        }
+        NavigabilityIndex.SectionNav section = section(SectionPos.blockToSectionCoord(x) - minSx,
+                SectionPos.blockToSectionCoord(y) - minSy, SectionPos.blockToSectionCoord(z) - minSz);
+        if (section == null) {
+            return NavigabilityIndex.UNLOADED;
+        }
+        return section.code(NavigabilityIndex.SectionNav.index(x, y, z));
+    }
+
+    // Section grid, in coordinates relative to the snapshot's minimum section
+
+    int minSx() {
+        return minSx;
+    }
+
+    int minSy() {
+        return minSy;
+    }
+
+    int minSz() {
+        return minSz;
+    }
+
+    int sizeX() {
+        return sizeX;
+    }
+
+    int sizeY() {
+        return sizeY;
+    }
+
+    int sizeZ() {
+        return sizeZ;
+    }
+
+    boolean contains(int sx, int sy, int sz) {
+        return sx >= 0 && sx < sizeX && sy >= 0 && sy < sizeY && sz >= 0 && sz < sizeZ;
+    }
+
+    int slot(int sx, int sy, int sz) {
+        return (sy * sizeZ + sz) * sizeX + sx;
+    }
+
+    /**
+     * Captured section at relative coordinates, or null if outside the box,
+     * unloaded or (for wide snapshots) not indexed yet.
+     */
+    NavigabilityIndex.SectionNav section(int sx, int sy, int sz) {
+        return contains(sx, sy, sz) ? sections[slot(sx, sy, sz)] : null;
+    }
+}
@@ -0,0 +1,667 @@
+package com.example.ai;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.pathfinder.PathComputationType;
+import net.minecraft.world.phys.Vec3;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared world-side navigability index.
+ * Keeps a packed bitmap per loaded chunk section with one bit plane per
+ * property (passable, solid, liquid, danger, air, cobblestone), a 4-bit
+ * hardness bucket and a 2-bit distance to the nearest danger per block. Sections are built lazily on first query,
+ * patched from block-change events and dropped when their chunk unloads, so
+ * queries never have to resolve a BlockState. Every block change that
+ * affects navigation bumps a per-level version and stamps its section with
+ * it, so paths can tell whether the terrain they cross changed after they
+ * were planned (SectionVersions).
+ *
+ * Server thread only. Background searches read it through a NavSnapshot;
+ * sections handed to a snapshot are copied before they are patched.
+ */
+public final class NavigabilityIndex {
+
+    // Returned by query() when the position's chunk isn't loaded
+    public static final int UNLOADED = -1;
+
+    // Bit planes, in storage order. Values are the matching BlockClassCache flags.
+    private static final int[] PLANES = {
+            BlockClassCache.PASSABLE,
+            BlockClassCache.SOLID,
+            BlockClassCache.LIQUID,
+            BlockClassCache.DANGER,
+            BlockClassCache.AIR,
+            BlockClassCache.COBBLESTONE
+    };
+    private static final int PLANE_PASSABLE = 0;
+    private static final int PLANE_SOLID = 1;
+    private static final int PLANE_LIQUID = 2;
+    private static final int PLANE_DANGER = 3;
+
+    // A code packs the plane flags in the low byte, the hardness bucket above them and the danger distance on top
+    private static final int FLAG_MASK = 0xFF;
+    static final int HARDNESS_SHIFT = 8;
+    private static final int DANGER_DISTANCE_SHIFT = 12;
+
+    // Danger distances are Chebyshev distances to the nearest danger block, capped here ("none nearby")
+    public static final int FAR_FROM_DANGER = 3;
+    // Blocks around a section whose danger affects its distances
+    private static final int DANGER_RANGE = FAR_FROM_DANGER - 1;
+
+    // Hardness buckets: upper bound of each bucket (bucket 0 = unbreakable).
+    // 1.0 is a bucket boundary so the SoftBreak threshold stays exact.
+    private static final float[] BUCKET_HARDNESS = {
+            -1.0f, 0.0f, 0.5f, 1.0f, 1.5f, 2.0f, 2.5f, 3.0f,
+            4.0f, 5.0f, 10.0f, 20.0f, 30.0f, 50.0f, 100.0f, 1200.0f
+    };
+
+    static final int AIR_CODE = BlockClassCache.PASSABLE | BlockClassCache.AIR | (1 << HARDNESS_SHIFT)
+            | (FAR_FROM_DANGER << DANGER_DISTANCE_SHIFT);
+
+    private static final Map<ResourceKey<Level>, LevelNav> levels = new ConcurrentHashMap<>();
+
+    // BlockState -> code. Everything we classify is a pure function of the state.
+    private static final Reference2IntOpenHashMap<BlockState> stateCodes = new Reference2IntOpenHashMap<>();
+
+    static {
+        stateCodes.defaultReturnValue(-1);
+    }
+
+    private NavigabilityIndex() {
+    }
+
+    public static void register() {
+        ServerChunkEvents.CHUNK_UNLOAD.register(NavigabilityIndex::onChunkUnload);
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> clearAll());
+    }
+
+    /**
+     * Packed navigation code for a block: BlockClassCache flags in the low
+     * byte plus a hardness bucket. UNLOADED if the chunk isn't loaded.
+     * Positions outside the build height read as air.
+     */
+    public static int query(Level level, long pos) {
+        int y = BlockPos.getY(pos);
+        if (level.isOutsideBuildHeight(y)) {
+            return AIR_CODE;
+        }
+        SectionNav section = forLevel(level).section(level,
+                SectionPos.blockToSectionCoord(BlockPos.getX(pos)),
+                SectionPos.blockToSectionCoord(y),
+                SectionPos.blockToSectionCoord(BlockPos.getZ(pos)));
+        if (section == null) {
+            return UNLOADED;
+        }
+        return section.code(SectionNav.index(BlockPos.getX(pos), y, BlockPos.getZ(pos)));
+    }
+
+    public static int flags(int code) {
+        return code & FLAG_MASK;
+    }
+
+    public static float hardness(int code) {
+        return BUCKET_HARDNESS[(code >>> HARDNESS_SHIFT) & 0xF];
+    }
+
+    /**
+     * Distance to the nearest danger block, 0 (is one) to FAR_FROM_DANGER.
+     */
+    public static int dangerDistance(int code) {
+        return (code >>> DANGER_DISTANCE_SHIFT) & 3;
+    }
+
+    /**
+     * blocksMotion() for a loaded block; unloaded blocks read as not solid.
+     */
+    public static boolean isSolid(Level level, BlockPos pos) {
+        int code = query(level, pos.asLong());
+        return code != UNLOADED && (code & BlockClassCache.SOLID) != 0;
+    }
+
+    /**
+     * Solid cardinal neighbours of a block as a bitmask of Direction.get2DDataValue()
+     * bits (south = 1, west = 2, north = 4, east = 8). When the block isn't on a
+     * section edge all four come from the same section's solid plane.
+     */
+    public static int cardinalSolidMask(Level level, BlockPos pos) {
+        int x = pos.getX();
+        int y = pos.getY();
+        int z = pos.getZ();
+        int lx = x & 15;
+        int lz = z & 15;
+        if (lx > 0 && lx < 15 && lz > 0 && lz < 15 && !level.isOutsideBuildHeight(y)) {
+            SectionNav section = forLevel(level).section(level,
+                    SectionPos.blockToSectionCoord(x), SectionPos.blockToSectionCoord(y), SectionPos.blockToSectionCoord(z));
+            if (section == null) {
+                return 0;
+            }
+            int index = SectionNav.index(x, y, z);
+            int mask = 0;
+            if (section.test(PLANE_SOLID, index + 16)) mask |= 1;
+            if (section.test(PLANE_SOLID, index - 1)) mask |= 2;
+            if (section.test(PLANE_SOLID, index - 16)) mask |= 4;
+            if (section.test(PLANE_SOLID, index + 1)) mask |= 8;
+            return mask;
+        }
+        int mask = 0;
+        if (isSolid(level, pos.south())) mask |= 1;
+        if (isSolid(level, pos.west())) mask |= 2;
+        if (isSolid(level, pos.north())) mask |= 4;
+        if (isSolid(level, pos.east())) mask |= 8;
+        return mask;
+    }
+
+    /**
+     * Whether any solid block lies on the segment between two points, sampled
+     * every quarter block. Used to skip raycasts through open air.
+     */
+    public static boolean anySolidAlong(Level level, Vec3 from, Vec3 to) {
+        Vec3 delta = to.subtract(from);
+        int steps = Math.max(1, (int) Math.ceil(delta.length() * 4.0));
+        long lastPos = Long.MIN_VALUE;
+        for (int i = 0; i <= steps; i++) {
+            double t = (double) i / steps;
+            long pos = BlockPos.asLong(Mth.floor(from.x + delta.x * t), Mth.floor(from.y + delta.y * t),
+                    Mth.floor(from.z + delta.z * t));
+            if (pos == lastPos) {
+                continue;
+            }
+            lastPos = pos;
+            int code = query(level, pos);
+            if (code == UNLOADED || (code & BlockClassCache.SOLID) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Keep cached sections in sync. Called for every block change on a server level.
+     */
+    public static void onBlockChanged(Level level, BlockPos pos, BlockState newState) {
+        LevelNav nav = levels.get(level.dimension());
+        if (nav != null) {
+            nav.onBlockChanged(level, pos, newState);
+        }
+    }
+
+    private static void onChunkUnload(Level level, LevelChunk chunk) {
+        LevelNav nav = levels.get(level.dimension());
+        if (nav != null) {
+            nav.dropChunk(level, chunk.getPos().x, chunk.getPos().z);
+        }
+    }
+
+    public static void clearAll() {
+        levels.clear();
+    }
+
+    /**
+     * Count of navigation-relevant block changes in the level so far.
+     */
+    public static int levelVersion(Level level) {
+        return forLevel(level).version;
+    }
+
+    /**
+     * Level version of the last change in a section (SectionPos key), or 0 if
+     * it hasn't changed since its chunk was loaded. Changes made before the
+     * section was indexed count too. Versions only grow while the chunk stays
+     * loaded; after a reload the next change still gets a higher one than any
+     * before, since they all come from the level's count.
+     */
+    public static int sectionVersion(Level level, long sectionKey) {
+        return forLevel(level).versions.get(sectionKey);
+    }
+
+    /**
+     * Build a section's index entry if it has none yet. False if its chunk isn't loaded.
+     */
+    static boolean indexSection(Level level, int sx, int sy, int sz) {
+        return forLevel(level).section(level, sx, sy, sz) != null;
+    }
+
+    static boolean isIndexed(Level level, int sx, int sy, int sz) {
+        return forLevel(level).sections.containsKey(SectionPos.asLong(sx, sy, sz));
+    }
+
+    /**
+     * Indexed section for a snapshot, or null if it isn't indexed. The section
+     * is marked shared so later block changes go to a copy instead.
+     */
+    static SectionNav shareIndexedSection(Level level, int sx, int sy, int sz) {
+        return share(forLevel(level).sections.get(SectionPos.asLong(sx, sy, sz)));
+    }
+
+    private static SectionNav share(SectionNav section) {
+        if (section != null) {
+            section.shared = true;
+        }
+        return section;
+    }
+
+    private static LevelNav forLevel(Level level) {
+        return levels.computeIfAbsent(level.dimension(), key -> new LevelNav());
+    }
+
+    @SuppressWarnings("deprecation")
+    static int classify(BlockState state, Level level, BlockPos pos) {
+        int code = stateCodes.getInt(state);
+        if (code >= 0) {
+            return code;
+        }
+        code = 0;
+        if (state.isPathfindable(PathComputationType.LAND) || !state.blocksMotion()) {
+            code |= BlockClassCache.PASSABLE;
+        }
+        if (state.blocksMotion()) {
+            code |= BlockClassCache.SOLID;
+        }
+        if (state.liquid()) {
+            code |= BlockClassCache.LIQUID;
+        }
+        if (state.is(Blocks.LAVA) || state.is(Blocks.FIRE) || state.is(Blocks.MAGMA_BLOCK)) {
+            code |= BlockClassCache.DANGER;
+        }
+        if (state.isAir()) {
+            code |= BlockClassCache.AIR;
+        }
+        if (state.is(Blocks.COBBLESTONE)) {
+            code |= BlockClassCache.COBBLESTONE;
+        }
+        code |= hardnessBucket(state.getDestroySpeed(level, pos)) << HARDNESS_SHIFT;
+        stateCodes.put(state, code);
+        return code;
+    }
+
+    private static int hardnessBucket(float hardness) {
+        if (hardness < 0) {
+            return 0;
+        }
+        for (int bucket = 1; bucket < BUCKET_HARDNESS.length - 1; bucket++) {
+            if (hardness <= BUCKET_HARDNESS[bucket]) {
+                return bucket;
+            }
+        }
+        return BUCKET_HARDNESS.length - 1;
+    }
+
+    /**
+     * Sections of one dimension, keyed by SectionPos.asLong().
+     */
+    private static final class LevelNav {
+        private final Long2ObjectOpenHashMap<SectionNav> sections = new Long2ObjectOpenHashMap<>();
+        // Level version of each loaded section's last change; sections that never changed read as 0
+        private final Long2IntOpenHashMap versions = new Long2IntOpenHashMap();
+        private int version;
+
+        // Most queries in a row hit the same section
+        private long lastKey = Long.MIN_VALUE;
+        private SectionNav lastSection;
+
+        // Danger rows of a section plus DANGER_RANGE blocks around it (bit x + DANGER_RANGE of
+        // row y * PADDED + z), and the same dilated by one and two blocks
+        private static final int PADDED = 16 + 2 * DANGER_RANGE;
+        private final int[] dangerRows = new int[PADDED * PADDED];
+        private final int[] nearRows = new int[PADDED * PADDED];
+        private final int[] farRows = new int[PADDED * PADDED];
+
+        SectionNav section(Level level, int sx, int sy, int sz) {
+            long key = SectionPos.asLong(sx, sy, sz);
+            if (key == lastKey) {
+                return lastSection;
+            }
+            SectionNav section = sections.get(key);
+            if (section == null) {
+                section = build(level, sx, sy, sz);
+                if (section == null) {
+                    return null;
+                }
+                sections.put(key, section);
+                if (section.hasDanger()) {
+                    // Its danger reaches into the sections around it
+                    updateDangerDistances(sx - 1, sy - 1, sz - 1, sx + 1, sy + 1, sz + 1);
+                } else {
+                    updateDangerDistances(sx, sy, sz, sx, sy, sz);
+                }
+                section = sections.get(key);
+            }
+            lastKey = key;
+            lastSection = section;
+            return section;
+        }
+
+        private SectionNav build(Level level, int sx, int sy, int sz) {
+            LevelChunk chunk = level.getChunkSource().getChunkNow(sx, sz);
+            if (chunk == null) {
+                return null;
+            }
+            LevelChunkSection chunkSection = chunk.getSection(level.getSectionIndexFromSectionY(sy));
+            if (chunkSection.hasOnlyAir()) {
+                return SectionNav.EMPTY;
+            }
+
+            SectionNav section = new SectionNav();
+            BlockPos.MutableBlockPos cursor = new BlockPos.MutableBlockPos();
+            int baseX = SectionPos.sectionToBlockCoord(sx);
+            int baseY = SectionPos.sectionToBlockCoord(sy);
+            int baseZ = SectionPos.sectionToBlockCoord(sz);
+            for (int y = 0; y < 16; y++) {
+                for (int z = 0; z < 16; z++) {
+                    for (int x = 0; x < 16; x++) {
+                        BlockState state = chunkSection.getBlockState(x, y, z);
+                        cursor.set(baseX + x, baseY + y, baseZ + z);
+                        section.set((y << 8) | (z << 4) | x, classify(state, level, cursor));
+                    }
+                }
+            }
+            return section;
+        }
+
+        void onBlockChanged(Level level, BlockPos pos, BlockState newState) {
+            long key = SectionPos.asLong(SectionPos.blockToSectionCoord(pos.getX()),
+                    SectionPos.blockToSectionCoord(pos.getY()), SectionPos.blockToSectionCoord(pos.getZ()));
+            SectionNav section = writable(key);
+            if (section == null) {
+                // Not indexed yet; it will be built from the live chunk when first queried
+                versions.put(key, ++version);
+                return;
+            }
+            int index = SectionNav.index(pos.getX(), pos.getY(), pos.getZ());
+            int oldCode = section.code(index);
+            boolean wasDanger = section.danger(index);
+            section.set(index, classify(newState, level, pos));
+            if (section.code(index) != oldCode) {
+                versions.put(key, ++version);
+            }
+            if (section.danger(index) != wasDanger) {
+                updateDangerDistances(
+                        SectionPos.blockToSectionCoord(pos.getX() - DANGER_RANGE),
+                        SectionPos.blockToSectionCoord(pos.getY() - DANGER_RANGE),
+                        SectionPos.blockToSectionCoord(pos.getZ() - DANGER_RANGE),
+                        SectionPos.blockToSectionCoord(pos.getX() + DANGER_RANGE),
+                        SectionPos.blockToSectionCoord(pos.getY() + DANGER_RANGE),
+                        SectionPos.blockToSectionCoord(pos.getZ() + DANGER_RANGE));
+            }
+        }
+
+        /**
+         * Indexed section to patch, copied first if a snapshot (or the shared
+         * all-air section) holds it, since those must never change. Null if not indexed.
+         */
+        private SectionNav writable(long key) {
+            SectionNav section = sections.get(key);
+            if (section != null && section.shared) {
+                section = section.copy();
+                sections.put(key, section);
+                if (key == lastKey) {
+                    lastSection = section;
+                }
+            }
+            return section;
+        }
+
+        private void updateDangerDistances(int minSx, int minSy, int minSz, int maxSx, int maxSy, int maxSz) {
+            for (int sy = minSy; sy <= maxSy; sy++) {
+                for (int sz = minSz; sz <= maxSz; sz++) {
+                    for (int sx = minSx; sx <= maxSx; sx++) {
+                        updateDangerDistances(sx, sy, sz);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Recompute one indexed section's danger distances from the danger in it
+         * and in the indexed sections around it. Sections not indexed yet count
+         * as safe; indexing them updates this one if they have any danger.
+         */
+        private void updateDangerDistances(int sx, int sy, int sz) {
+            long key = SectionPos.asLong(sx, sy, sz);
+            SectionNav section = sections.get(key);
+            if (section == null) {
+                return;
+            }
+
+            Arrays.fill(dangerRows, 0);
+            boolean anyDanger = false;
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    for (int dx = -1; dx <= 1; dx++) {
+                        SectionNav neighbor = sections.get(SectionPos.asLong(sx + dx, sy + dy, sz + dz));
+                        if (neighbor != null && neighbor.hasDanger()) {
+                            addDangerRows(neighbor, dx, dy, dz);
+                            anyDanger = true;
+                        }
+                    }
+                }
+            }
+            if (!anyDanger) {
+                if (section.hasDangerNearby()) {
+                    writable(key).clearDangerDistances();
+                }
+                return;
+            }
+
+            dilate(dangerRows, nearRows);
+            dilate(nearRows, farRows);
+            section = writable(key);
+            for (int y = 0; y < 16; y++) {
+                for (int z = 0; z < 16; z++) {
+                    int row = (y + DANGER_RANGE) * PADDED + z + DANGER_RANGE;
+                    int danger = dangerRows[row] >>> DANGER_RANGE;
+                    int near = nearRows[row] >>> DANGER_RANGE;
+                    int far = farRows[row] >>> DANGER_RANGE;
+                    for (int x = 0; x < 16; x++) {
+                        int bit = 1 << x;
+                        int distance = (danger & bit) != 0 ? 0
+                                : (near & bit) != 0 ? 1
+                                : (far & bit) != 0 ? 2
+                                : FAR_FROM_DANGER;
+                        section.setDangerDistance((y << 8) | (z << 4) | x, distance);
+                    }
+                }
+            }
+        }
+
+        /**
+         * OR the danger rows of the neighbour at section offset (dx, dy, dz) that
+         * fall within the padded box into dangerRows.
+         */
+        private void addDangerRows(SectionNav neighbor, int dx, int dy, int dz) {
+            for (int y = 0; y < 16; y++) {
+                int py = y + dy * 16 + DANGER_RANGE;
+                if (py < 0 || py >= PADDED) {
+                    continue;
+                }
+                for (int z = 0; z < 16; z++) {
+                    int pz = z + dz * 16 + DANGER_RANGE;
+                    if (pz < 0 || pz >= PADDED) {
+                        continue;
+                    }
+                    int bits = neighbor.dangerRow(y, z);
+                    if (bits == 0) {
+                        continue;
+                    }
+                    int shifted = dx < 0 ? bits >>> (16 - DANGER_RANGE)
+                            : dx > 0 ? (bits & ((1 << DANGER_RANGE) - 1)) << (16 + DANGER_RANGE)
+                            : bits << DANGER_RANGE;
+                    dangerRows[py * PADDED + pz] |= shifted;
+                }
+            }
+        }
+
+        /**
+         * Grow the rows by one block in every direction, diagonals included.
+         */
+        private static void dilate(int[] from, int[] to) {
+            int mask = (1 << PADDED) - 1;
+            for (int y = 0; y < PADDED; y++) {
+                for (int z = 0; z < PADDED; z++) {
+                    int bits = 0;
+                    for (int ny = Math.max(0, y - 1); ny <= Math.min(PADDED - 1, y + 1); ny++) {
+                        for (int nz = Math.max(0, z - 1); nz <= Math.min(PADDED - 1, z + 1); nz++) {
+                            bits |= from[ny * PADDED + nz];
+                        }
+                    }
+                    to[y * PADDED + z] = (bits | bits << 1 | bits >>> 1) & mask;
+                }
+            }
+        }
+
+        void dropChunk(Level level, int cx, int cz) {
+            for (int sy = level.getMinSection(); sy < level.getMaxSection(); sy++) {
+                long key = SectionPos.asLong(cx, sy, cz);
+                sections.remove(key);
+                versions.remove(key);
+            }
+            lastKey = Long.MIN_VALUE;
+            lastSection = null;
+        }
+    }
+
+    /**
+     * Packed navigability data for one 16x16x16 section.
+     * Block index is (y << 8) | (z << 4) | x, so each long of a plane covers
+     * four 16-block rows of one layer.
+     */
+    public static final class SectionNav {
+        private static final int WORDS_PER_PLANE = 4096 / 64;
+        private static final int HARDNESS_WORDS = 4096 * 4 / 64;
+        private static final int HARDNESS_OFFSET = PLANES.length * WORDS_PER_PLANE;
+        private static final int CLOSENESS_WORDS = 4096 * 2 / 64;
+        private static final int CLOSENESS_OFFSET = HARDNESS_OFFSET + HARDNESS_WORDS;
+
+        static final SectionNav EMPTY = createEmpty();
+
+        // Bit planes, then the 4-bit hardness buckets, then 2-bit closeness to danger
+        // (FAR_FROM_DANGER - distance, so a fresh section reads as far from any)
+        private final long[] words;
+
+        // Referenced by a snapshot (or the shared EMPTY section): read-only from now on
+        boolean shared;
+
+        private SectionNav() {
+            this.words = new long[CLOSENESS_OFFSET + CLOSENESS_WORDS];
+        }
+
+        private SectionNav(long[] words) {
+            this.words = words;
+        }
+
+        private static SectionNav createEmpty() {
+            SectionNav section = new SectionNav();
+            for (int i = 0; i < 4096; i++) {
+                section.set(i, AIR_CODE);
+            }
+            section.shared = true;
+            return section;
+        }
+
+        static int index(int x, int y, int z) {
+            return ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+        }
+
+        SectionNav copy() {
+            return new SectionNav(Arrays.copyOf(words, words.length));
+        }
+
+        boolean passable(int index) {
+            return test(PLANE_PASSABLE, index);
+        }
+
+        // Solid or liquid: something that can be stood on
+        boolean floor(int index) {
+            return test(PLANE_SOLID, index) || test(PLANE_LIQUID, index);
+        }
+
+        boolean danger(int index) {
+            return test(PLANE_DANGER, index);
+        }
+
+        // Danger bits of the 16-block x row at (y, z)
+        int dangerRow(int y, int z) {
+            return (int) (words[PLANE_DANGER * WORDS_PER_PLANE + (y << 2) + (z >>> 2)] >>> ((z & 3) << 4)) & 0xFFFF;
+        }
+
+        boolean hasDanger() {
+            for (int w = PLANE_DANGER * WORDS_PER_PLANE; w < (PLANE_DANGER + 1) * WORDS_PER_PLANE; w++) {
+                if (words[w] != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean hasDangerNearby() {
+            for (int w = CLOSENESS_OFFSET; w < CLOSENESS_OFFSET + CLOSENESS_WORDS; w++) {
+                if (words[w] != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int dangerDistance(int index) {
+            return FAR_FROM_DANGER - (int) ((words[CLOSENESS_OFFSET + (index >>> 5)] >>> ((index & 31) << 1)) & 3);
+        }
+
+        void setDangerDistance(int index, int distance) {
+            int w = CLOSENESS_OFFSET + (index >>> 5);
+            int shift = (index & 31) << 1;
+            words[w] = (words[w] & ~(3L << shift)) | ((long) (FAR_FROM_DANGER - distance) << shift);
+        }
+
+        void clearDangerDistances() {
+            Arrays.fill(words, CLOSENESS_OFFSET, CLOSENESS_OFFSET + CLOSENESS_WORDS, 0);
+        }
+
+        boolean test(int plane, int index) {
+            return (words[plane * WORDS_PER_PLANE + (index >>> 6)] & (1L << index)) != 0;
+        }
+
+        int code(int index) {
+            int code = 0;
+            for (int plane = 0; plane < PLANES.length; plane++) {
+                if (test(plane, index)) {
+                    code |= PLANES[plane];
+                }
+            }
+            int bucket = (int) (words[HARDNESS_OFFSET + (index >>> 4)] >>> ((index & 15) << 2)) & 0xF;
+            return code | (bucket << HARDNESS_SHIFT) | (dangerDistance(index) << DANGER_DISTANCE_SHIFT);
+        }
+
+        void set(int index, int code) {
+            int word = index >>> 6;
+            long bit = 1L << index;
+            for (int plane = 0; plane < PLANES.length; plane++) {
+                int w = plane * WORDS_PER_PLANE + word;
+                if ((code & PLANES[plane]) != 0) {
+                    words[w] |= bit;
+                } else {
+                    words[w] &= ~bit;
+                }
+            }
+            int hw = HARDNESS_OFFSET + (index >>> 4);
+            int shift = (index & 15) << 2;
+            long bucket = (code >>> HARDNESS_SHIFT) & 0xF;
+            words[hw] = (words[hw] & ~(0xFL << shift)) | (bucket << shift);
+        }
+    }
+}
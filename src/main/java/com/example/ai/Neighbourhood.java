@@ -0,0 +1,127 @@
+package com.example.ai;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.entity.Mob;
+import net.minecraft.world.level.Level;
+
+/**
+ * Which blocks around a mob are solid, for the climbing, vaulting and wall
+ * suction steering: the 3x3 columns around the mob's block, from the floor
+ * below its feet to two blocks above them, as one 36-bit mask. The mask is
+ * kept on the mob and only sampled again when the mob moved to another
+ * block or one of the sections it covers changed. Server thread only.
+ */
+public final class Neighbourhood {
+
+    // Layers relative to the mob's block: floor, feet, head, above head
+    public static final int MIN_DY = -1;
+    public static final int MAX_DY = 2;
+
+    private Neighbourhood() {
+    }
+
+    /**
+     * Implemented by the Mob mixin: the mob's last snapshot.
+     */
+    public interface Holder {
+        Snapshot challengemod$neighbourhood();
+    }
+
+    public static final class Snapshot {
+        Level level;
+        long origin;
+        // Highest section version among the covered sections when sampled
+        int version = -1;
+        // tickCount of the mob when last checked against the level
+        int checkedTick = -1;
+        // Bit per cell, see bit()
+        long solid;
+        // Some cells were in unloaded chunks; loading them changes no section version
+        boolean partial;
+
+        public boolean isSolid(int dx, int dy, int dz) {
+            return (solid & (1L << bit(dx, dy, dz))) != 0;
+        }
+
+        /**
+         * Solid cardinal neighbours at layer dy, as a bitmask of
+         * Direction.get2DDataValue() bits like NavigabilityIndex.cardinalSolidMask().
+         */
+        public int cardinalMask(int dy) {
+            int mask = 0;
+            if (isSolid(0, dy, 1)) mask |= 1;
+            if (isSolid(-1, dy, 0)) mask |= 2;
+            if (isSolid(0, dy, -1)) mask |= 4;
+            if (isSolid(1, dy, 0)) mask |= 8;
+            return mask;
+        }
+
+        /**
+         * Whether the block next to the mob's in the given horizontal direction is solid at layer dy.
+         */
+        public boolean isSolid(Direction direction, int dy) {
+            return isSolid(direction.getStepX(), dy, direction.getStepZ());
+        }
+    }
+
+    /**
+     * The mob's neighbourhood, sampled again if it's out of date.
+     */
+    public static Snapshot around(Mob mob) {
+        Snapshot snapshot = mob instanceof Holder holder ? holder.challengemod$neighbourhood() : new Snapshot();
+        Level level = mob.level();
+        BlockPos pos = mob.blockPosition();
+        long origin = pos.asLong();
+        boolean moved = snapshot.level != level || snapshot.origin != origin;
+        if (!moved && snapshot.checkedTick == mob.tickCount) {
+            return snapshot;
+        }
+        snapshot.checkedTick = mob.tickCount;
+        int version = coveredVersion(level, pos);
+        if (moved || snapshot.partial || snapshot.version != version) {
+            snapshot.level = level;
+            snapshot.origin = origin;
+            snapshot.version = version;
+            sample(snapshot, level, pos);
+        }
+        return snapshot;
+    }
+
+    private static int bit(int dx, int dy, int dz) {
+        return ((dy - MIN_DY) * 3 + dz + 1) * 3 + dx + 1;
+    }
+
+    private static void sample(Snapshot snapshot, Level level, BlockPos pos) {
+        long solid = 0;
+        boolean partial = false;
+        for (int dy = MIN_DY; dy <= MAX_DY; dy++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    int code = NavigabilityIndex.query(level, BlockPos.asLong(pos.getX() + dx, pos.getY() + dy, pos.getZ() + dz));
+                    if (code == NavigabilityIndex.UNLOADED) {
+                        partial = true;
+                    } else if ((code & BlockClassCache.SOLID) != 0) {
+                        solid |= 1L << bit(dx, dy, dz);
+                    }
+                }
+            }
+        }
+        snapshot.solid = solid;
+        snapshot.partial = partial;
+    }
+
+    // Latest change to any section the neighbourhood of pos touches; one to eight sections
+    private static int coveredVersion(Level level, BlockPos pos) {
+        int version = 0;
+        for (int sy = SectionPos.blockToSectionCoord(pos.getY() + MIN_DY); sy <= SectionPos.blockToSectionCoord(pos.getY() + MAX_DY); sy++) {
+            for (int sz = SectionPos.blockToSectionCoord(pos.getZ() - 1); sz <= SectionPos.blockToSectionCoord(pos.getZ() + 1); sz++) {
+                for (int sx = SectionPos.blockToSectionCoord(pos.getX() - 1); sx <= SectionPos.blockToSectionCoord(pos.getX() + 1); sx++) {
+                    version = Math.max(version, NavigabilityIndex.sectionVersion(level, SectionPos.asLong(sx, sy, sz)));
+                }
+            }
+        }
+        return version;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.ai;
+
+import net.minecraft.core.BlockPos;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable path: node positions as packed BlockPos longs, with a parallel
+ * byte of action flags per node saying how the mob gets onto it.
+ * Shared as-is between search results, the mob's cached path and the debug
+ * layer, so nothing is copied or boxed along the way.
+ *
+ * A placed block always goes directly below its node: a bridge places under
+ * the cell it steps into, a pillar under the cell it jumps up into.
+ */
+public final class PackedPath {
+
+    // Action flags. A plain walk has none.
+    public static final byte JUMP = 1;
+    public static final byte DROP = 2;
+    public static final byte BREAK = 4;
+    public static final byte PLACE = 8;
+    public static final byte PILLAR = 16;
+
+    public static final PackedPath EMPTY = new PackedPath(new long[0], new byte[0]);
+
+    private final long[] positions;
+    private final byte[] flags;
+    private final int placements;
+
+    private PackedPath(long[] positions, byte[] flags) {
+        this.positions = positions;
+        this.flags = flags;
+        int count = 0;
+        for (byte f : flags) {
+            if ((f & PLACE) != 0) {
+                count++;
+            }
+        }
+        this.placements = count;
+    }
+
+    /**
+     * Takes ownership of the arrays; callers must not modify them afterwards.
+     */
+    static PackedPath wrap(long[] positions, byte[] flags) {
+        return positions.length == 0 ? EMPTY : new PackedPath(positions, flags);
+    }
+
+    /**
+     * Plain walk through the given positions.
+     */
+    public static PackedPath of(List<BlockPos> path) {
+        long[] positions = new long[path.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = path.get(i).asLong();
+        }
+        return wrap(positions, new byte[positions.length]);
+    }
+
+    /**
+     * A plan of blocks to place, each as a PLACE node standing on it.
+     */
+    public static PackedPath placements(List<BlockPos> blocks) {
+        long[] positions = new long[blocks.size()];
+        byte[] flags = new byte[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = BlockPos.offset(blocks.get(i).asLong(), 0, 1, 0);
+            flags[i] = PLACE;
+        }
+        return wrap(positions, flags);
+    }
+
+    public int size() {
+        return positions.length;
+    }
+
+    public boolean isEmpty() {
+        return positions.length == 0;
+    }
+
+    public long pos(int index) {
+        return positions[index];
+    }
+
+    public BlockPos get(int index) {
+        return BlockPos.of(positions[index]);
+    }
+
+    public BlockPos last() {
+        return positions.length == 0 ? null : get(positions.length - 1);
+    }
+
+    public int flags(int index) {
+        return flags[index];
+    }
+
+    public boolean has(int index, int flag) {
+        return (flags[index] & flag) != 0;
+    }
+
+    /**
+     * Block to place before stepping onto the node, or null if there is none.
+     */
+    public BlockPos buildTarget(int index) {
+        return has(index, PLACE) ? BlockPos.of(BlockPos.offset(positions[index], 0, -1, 0)) : null;
+    }
+
+    /**
+     * The rest of the path from index on.
+     */
+    public PackedPath from(int index) {
+        if (index == 0) {
+            return this;
+        }
+        return wrap(Arrays.copyOfRange(positions, index, positions.length), Arrays.copyOfRange(flags, index, flags.length));
+    }
+
+    public boolean hasPlacements() {
+        return placements > 0;
+    }
+}
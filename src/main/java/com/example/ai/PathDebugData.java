@@ -1,7 +1,5 @@
 package com.example.ai;
 
-import net.minecraft.core.BlockPos;
-
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -13,7 +11,7 @@ import java.util.concurrent.ConcurrentHashMap;
 public class PathDebugData {
 
     // Map of mob UUID to their current path
-    private static final Map<UUID, List<BlockPos>> mobPaths = new ConcurrentHashMap<>();
+    private static final Map<UUID, PackedPath> mobPaths = new ConcurrentHashMap<>();
 
     // Timestamp for each path (for cleanup)
     private static final Map<UUID, Long> pathTimestamps = new ConcurrentHashMap<>();
@@ -24,15 +22,15 @@ public class PathDebugData {
     /**
      * Set the path for a mob
      */
-    public static void setMobPath(UUID mobId, List<BlockPos> path) {
-        mobPaths.put(mobId, new ArrayList<>(path));
+    public static void setMobPath(UUID mobId, PackedPath path) {
+        mobPaths.put(mobId, path); // Immutable, so shared rather than copied
         pathTimestamps.put(mobId, System.currentTimeMillis());
     }
 
     /**
      * Get the path for a mob
      */
-    public static List<BlockPos> getMobPath(UUID mobId) {
+    public static PackedPath getMobPath(UUID mobId) {
         return mobPaths.get(mobId);
     }
 
@@ -47,7 +45,7 @@ public class PathDebugData {
     /**
      * Get all mob paths (for rendering)
      */
-    public static Map<UUID, List<BlockPos>> getAllPaths() {
+    public static Map<UUID, PackedPath> getAllPaths() {
         // Clean up expired paths
         long now = System.currentTimeMillis();
         pathTimestamps.entrySet().removeIf(entry -> {
@@ -0,0 +1,311 @@
+package com.example.ai;
+
+import java.util.Arrays;
+
+/**
+ * Reusable node storage for A* searches.
+ * Nodes live in parallel primitive arrays and are looked up by BlockPos.asLong()
+ * through an open-addressing table. The open set is an indexed binary heap, so
+ * a cheaper route to a queued node is a real decrease-key instead of a
+ * remove + re-add. Searches take a store from AStarPathfinder's NODE_STORES
+ * pool when they start, reset it, and hand it back when they finish, so a
+ * sliced search keeps its store whichever thread runs its next slice; arrays only ever grow, so
+ * steady-state searches allocate nothing.
+ */
+public final class PathNodeStore {
+
+    public static final int NO_NODE = -1;
+
+    // heapIndex values for nodes that are not in the heap
+    private static final int NOT_QUEUED = -1;
+    private static final int CLOSED = -2;
+
+    private static final int INITIAL_NODES = 4096;
+
+    // Node data (struct of arrays, indexed by node id)
+    private long[] pos;
+    private double[] gCost;
+    private double[] hCost;
+    private int[] parent;
+    // Caller-defined per-node bits (A* stores the PackedPath action flags of the move onto the node)
+    private byte[] flags;
+    // Highest move layer on the route to the node (see AStarPathfinder.LAYER_*)
+    private byte[] layer;
+    private int[] heapIndex;
+    private int size;
+
+    // Open-addressing table: pos -> node id. Slots are only valid when their
+    // stamp matches the current generation, so reset() never has to clear them.
+    private long[] keys;
+    private int[] values;
+    private int[] stamps;
+    private int mask;
+    private int generation;
+
+    // Indexed binary min-heap of node ids ordered by fCost, then hCost
+    private int[] heap;
+    private int heapSize;
+
+    public PathNodeStore() {
+        allocateNodes(INITIAL_NODES);
+        allocateTable(INITIAL_NODES * 2);
+        this.heap = new int[INITIAL_NODES];
+    }
+
+    /**
+     * Forget all nodes from the previous search. O(1).
+     */
+    public void reset() {
+        size = 0;
+        heapSize = 0;
+        generation++;
+        if (generation == 0) {
+            // Stamp counter wrapped: clear once so stale slots can't match
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Find the node for a position, or NO_NODE if it hasn't been reached yet.
+     */
+    public int find(long key) {
+        int slot = mix(key) & mask;
+        while (stamps[slot] == generation) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NO_NODE;
+    }
+
+    /**
+     * Find the node for a position, creating an unreached node (infinite gCost)
+     * if needed.
+     */
+    public int getOrCreate(long key) {
+        int slot = mix(key) & mask;
+        while (stamps[slot] == generation) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (size == pos.length) {
+            allocateNodes(pos.length * 2);
+        }
+        int node = size++;
+        pos[node] = key;
+        gCost[node] = Double.MAX_VALUE;
+        hCost[node] = 0;
+        parent[node] = NO_NODE;
+        flags[node] = 0;
+        layer[node] = 0;
+        heapIndex[node] = NOT_QUEUED;
+
+        keys[slot] = key;
+        values[slot] = node;
+        stamps[slot] = generation;
+
+        // Keep load factor at or below 1/2
+        if (size * 2 > mask) {
+            rehash((mask + 1) * 2);
+        }
+        return node;
+    }
+
+    public long pos(int node) {
+        return pos[node];
+    }
+
+    public double gCost(int node) {
+        return gCost[node];
+    }
+
+    public double hCost(int node) {
+        return hCost[node];
+    }
+
+    public double fCost(int node) {
+        return gCost[node] + hCost[node];
+    }
+
+    public int parent(int node) {
+        return parent[node];
+    }
+
+    public byte flags(int node) {
+        return flags[node];
+    }
+
+    public int layer(int node) {
+        return layer[node];
+    }
+
+    /**
+     * Record a (better) route to a node. Callers must follow up with push().
+     */
+    public void update(int node, int parentNode, double g, double h) {
+        parent[node] = parentNode;
+        gCost[node] = g;
+        hCost[node] = h;
+        flags[node] = 0;
+        layer[node] = 0;
+    }
+
+    public void setFlags(int node, byte value) {
+        flags[node] = value;
+    }
+
+    public void setLayer(int node, int value) {
+        layer[node] = (byte) value;
+    }
+
+    public boolean isClosed(int node) {
+        return heapIndex[node] == CLOSED;
+    }
+
+    public void close(int node) {
+        heapIndex[node] = CLOSED;
+    }
+
+    public boolean isOpenEmpty() {
+        return heapSize == 0;
+    }
+
+    /**
+     * Insert a node into the open set, or restore heap order after its cost
+     * dropped (decrease-key).
+     */
+    public void push(int node) {
+        int index = heapIndex[node];
+        if (index < 0) {
+            if (heapSize == heap.length) {
+                heap = Arrays.copyOf(heap, heap.length * 2);
+            }
+            index = heapSize++;
+            heap[index] = node;
+            heapIndex[node] = index;
+        }
+        siftUp(index);
+    }
+
+    /**
+     * Remove and return the open node with the lowest fCost.
+     */
+    public int poll() {
+        int top = heap[0];
+        heapSize--;
+        if (heapSize > 0) {
+            int last = heap[heapSize];
+            heap[0] = last;
+            heapIndex[last] = 0;
+            siftDown(0);
+        }
+        heapIndex[top] = NOT_QUEUED;
+        return top;
+    }
+
+    private boolean less(int a, int b) {
+        double fa = gCost[a] + hCost[a];
+        double fb = gCost[b] + hCost[b];
+        if (fa != fb) {
+            return fa < fb;
+        }
+        return hCost[a] < hCost[b];
+    }
+
+    private void siftUp(int index) {
+        int node = heap[index];
+        while (index > 0) {
+            int parentIndex = (index - 1) >>> 1;
+            int parentNode = heap[parentIndex];
+            if (!less(node, parentNode)) {
+                break;
+            }
+            heap[index] = parentNode;
+            heapIndex[parentNode] = index;
+            index = parentIndex;
+        }
+        heap[index] = node;
+        heapIndex[node] = index;
+    }
+
+    private void siftDown(int index) {
+        int node = heap[index];
+        int half = heapSize >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < heapSize && less(heap[right], heap[child])) {
+                child = right;
+            }
+            if (!less(heap[child], node)) {
+                break;
+            }
+            heap[index] = heap[child];
+            heapIndex[heap[index]] = index;
+            index = child;
+        }
+        heap[index] = node;
+        heapIndex[node] = index;
+    }
+
+    private void allocateNodes(int capacity) {
+        if (pos == null) {
+            pos = new long[capacity];
+            gCost = new double[capacity];
+            hCost = new double[capacity];
+            parent = new int[capacity];
+            flags = new byte[capacity];
+            layer = new byte[capacity];
+            heapIndex = new int[capacity];
+            return;
+        }
+        pos = Arrays.copyOf(pos, capacity);
+        gCost = Arrays.copyOf(gCost, capacity);
+        hCost = Arrays.copyOf(hCost, capacity);
+        parent = Arrays.copyOf(parent, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        layer = Arrays.copyOf(layer, capacity);
+        heapIndex = Arrays.copyOf(heapIndex, capacity);
+    }
+
+    private void allocateTable(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        stamps = new int[capacity];
+        mask = capacity - 1;
+        generation = 1;
+    }
+
+    private void rehash(int capacity) {
+        allocateTable(capacity);
+        for (int node = 0; node < size; node++) {
+            int slot = mix(pos[node]) & mask;
+            while (stamps[slot] == generation) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = pos[node];
+            values[slot] = node;
+            stamps[slot] = generation;
+        }
+    }
+
+    private static int mix(long key) {
+        // Murmur3 finalizer: packed BlockPos longs cluster heavily in the low bits
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
@@ -0,0 +1,654 @@
+package com.example.ai;
+
+import com.example.ai.NavigabilityIndex.SectionNav;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Abstract graph for long-range (HPA*-style) planning.
+ * Every chunk section is a cluster. Standable blocks on each section face are
+ * grouped into portals (runs of neighbouring cells), and the walking distance
+ * between the portals of a section is found once by BFS and cached until the
+ * section, or one above or below it, changes. A long query is planned over
+ * portals first and only its first leg is refined with block-level A*.
+ * Sections a wide snapshot hasn't indexed yet are crossed optimistically.
+ */
+public final class PortalGraph {
+
+    private static final int MAX_PORTALS = 64;
+    // Portal id used for the abstract node of a section that isn't indexed
+    private static final int UNKNOWN = MAX_PORTALS;
+    private static final int MAX_EXPANSIONS = 20000;
+    // Optimistic cost of crossing half of an unindexed section
+    private static final int UNKNOWN_HALF_COST = 8;
+    private static final long GOAL = -2L;
+
+    // Faces, in pairs so that face ^ 1 is the opposite face
+    private static final int WEST = 0, EAST = 1, NORTH = 2, SOUTH = 3, DOWN = 4, UP = 5;
+    private static final int[][] FACE_NORMALS = {
+            { -1, 0, 0 }, { 1, 0, 0 }, { 0, 0, -1 }, { 0, 0, 1 }, { 0, -1, 0 }, { 0, 1, 0 }
+    };
+    private static final int[][] CARDINALS = { { 1, 0 }, { -1, 0 }, { 0, 1 }, { 0, -1 } };
+    // Step up one block, walk level, or drop up to three blocks
+    private static final int[] STEP_HEIGHTS = { 0, 1, -1, -2, -3 };
+
+    // Keyed by section identity: a changed section is a new (copied) SectionNav,
+    // so stale entries stop matching and are collected with their section.
+    // Entries only hold weak references to sections, or they would keep their own key alive.
+    private static final Map<SectionNav, SectionPortals> cache = Collections.synchronizedMap(new WeakHashMap<>());
+    // All-air sections share one SectionNav, so those are keyed by the section below
+    private static final Map<SectionNav, SectionPortals> emptyCache = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private static final ThreadLocal<PathNodeStore> NODE_STORE = ThreadLocal.withInitial(PathNodeStore::new);
+
+    private PortalGraph() {
+    }
+
+    /**
+     * Result of an abstract search
+     */
+    public static class Plan {
+        // Portal (or unindexed section centre) positions from start to target, ending with the target
+        public final List<BlockPos> waypoints;
+        public final int expansions;
+
+        public Plan(List<BlockPos> waypoints, int expansions) {
+            this.waypoints = waypoints;
+            this.expansions = expansions;
+        }
+
+        /**
+         * Goal for the next refined leg: the furthest waypoint within range of the
+         * start, or a point range blocks towards the first waypoint if none is.
+         */
+        public BlockPos nextLeg(BlockPos start, double range) {
+            BlockPos leg = null;
+            for (BlockPos waypoint : waypoints) {
+                if (!waypoint.closerThan(start, range)) {
+                    break;
+                }
+                leg = waypoint;
+            }
+            if (leg != null) {
+                return leg;
+            }
+            return towards(start, waypoints.get(0), range);
+        }
+    }
+
+    /**
+     * Point range blocks from start towards target.
+     */
+    public static BlockPos towards(BlockPos start, BlockPos target, double range) {
+        double distance = Math.sqrt(start.distSqr(target));
+        if (distance <= range) {
+            return target;
+        }
+        double t = range / distance;
+        return BlockPos.containing(start.getX() + (target.getX() - start.getX()) * t,
+                start.getY() + (target.getY() - start.getY()) * t,
+                start.getZ() + (target.getZ() - start.getZ()) * t);
+    }
+
+    /**
+     * Plan from start to target over the portal graph of a (wide) snapshot.
+     *
+     * @return the plan, or null if the graph has no route
+     */
+    public static Plan plan(NavSnapshot snapshot, BlockPos start, BlockPos target) {
+        return new Planner(snapshot, start, target).run();
+    }
+
+    /**
+     * One abstract search. Node keys pack a section (relative to the snapshot)
+     * and a portal id; section data is memoised for the duration of the search.
+     */
+    private static final class Planner {
+        private final NavSnapshot snapshot;
+        private final BlockPos start;
+        private final BlockPos target;
+        private final Long2ObjectOpenHashMap<SectionPortals> portals = new Long2ObjectOpenHashMap<>();
+        private final PathNodeStore nodes = NODE_STORE.get();
+
+        private int goalSx, goalSy, goalSz;
+        private short[] goalDist;
+
+        Planner(NavSnapshot snapshot, BlockPos start, BlockPos target) {
+            this.snapshot = snapshot;
+            this.start = start;
+            this.target = target;
+        }
+
+        Plan run() {
+            nodes.reset();
+            int startSx = SectionPos.blockToSectionCoord(start.getX()) - snapshot.minSx();
+            int startSy = SectionPos.blockToSectionCoord(start.getY()) - snapshot.minSy();
+            int startSz = SectionPos.blockToSectionCoord(start.getZ()) - snapshot.minSz();
+            goalSx = SectionPos.blockToSectionCoord(target.getX()) - snapshot.minSx();
+            goalSy = SectionPos.blockToSectionCoord(target.getY()) - snapshot.minSy();
+            goalSz = SectionPos.blockToSectionCoord(target.getZ()) - snapshot.minSz();
+            if (!snapshot.contains(startSx, startSy, startSz) || !snapshot.contains(goalSx, goalSy, goalSz)) {
+                return null;
+            }
+
+            SectionPortals goalSection = portals(goalSx, goalSy, goalSz);
+            if (goalSection != null) {
+                goalDist = goalSection.distancesFrom(SectionNav.index(target.getX(), target.getY(), target.getZ()));
+            }
+
+            // Seed with the start section's portals, at their walking distance from the start
+            SectionPortals startSection = portals(startSx, startSy, startSz);
+            if (startSection == null) {
+                open(PathNodeStore.NO_NODE, key(startSx, startSy, startSz, UNKNOWN), 0);
+            } else {
+                short[] dist = startSection.distancesFrom(SectionNav.index(start.getX(), start.getY(), start.getZ()));
+                for (int p = 0; p < startSection.count; p++) {
+                    long key = key(startSx, startSy, startSz, p);
+                    double cost = dist != null ? dist[p] : Math.sqrt(start.distSqr(position(key)));
+                    if (cost >= 0) {
+                        open(PathNodeStore.NO_NODE, key, cost);
+                    }
+                }
+            }
+
+            int expansions = 0;
+            while (!nodes.isOpenEmpty() && expansions < MAX_EXPANSIONS) {
+                int current = nodes.poll();
+                expansions++;
+                long key = nodes.pos(current);
+                if (key == GOAL) {
+                    return new Plan(reconstruct(current), expansions);
+                }
+                nodes.close(current);
+                expand(current, key);
+            }
+            return null;
+        }
+
+        private void expand(int current, long key) {
+            int p = (int) (key & 127);
+            long section = key >> 7;
+            int sz = (int) (section % snapshot.sizeZ());
+            int sy = (int) ((section / snapshot.sizeZ()) % snapshot.sizeY());
+            int sx = (int) (section / snapshot.sizeZ() / snapshot.sizeY());
+            boolean inGoalSection = sx == goalSx && sy == goalSy && sz == goalSz;
+
+            if (p == UNKNOWN) {
+                if (inGoalSection) {
+                    open(current, GOAL, Math.sqrt(position(key).distSqr(target)));
+                }
+                for (int face = 0; face < 6; face++) {
+                    int nx = sx + FACE_NORMALS[face][0];
+                    int ny = sy + FACE_NORMALS[face][1];
+                    int nz = sz + FACE_NORMALS[face][2];
+                    if (!snapshot.contains(nx, ny, nz)) {
+                        continue;
+                    }
+                    SectionPortals neighbor = portals(nx, ny, nz);
+                    if (neighbor == null) {
+                        open(current, key(nx, ny, nz, UNKNOWN), UNKNOWN_HALF_COST * 2);
+                        continue;
+                    }
+                    // Enter a known section through any portal on the face that touches us
+                    for (int q = 0; q < neighbor.count; q++) {
+                        if (neighbor.face[q] == (face ^ 1)) {
+                            open(current, key(nx, ny, nz, q), UNKNOWN_HALF_COST);
+                        }
+                    }
+                }
+                return;
+            }
+
+            SectionPortals here = portals(sx, sy, sz);
+            if (inGoalSection) {
+                double cost = goalDist != null ? goalDist[p] : Math.sqrt(position(key).distSqr(target));
+                if (cost >= 0) {
+                    open(current, GOAL, cost);
+                }
+            }
+
+            // Walk to the other portals of this section
+            for (int q = 0; q < here.count; q++) {
+                int d = here.dist[p * here.count + q];
+                if (q != p && d >= 0) {
+                    open(current, key(sx, sy, sz, q), d);
+                }
+            }
+
+            // Step through the face into the neighbouring section
+            int face = here.face[p];
+            int nx = sx + FACE_NORMALS[face][0];
+            int ny = sy + FACE_NORMALS[face][1];
+            int nz = sz + FACE_NORMALS[face][2];
+            if (!snapshot.contains(nx, ny, nz)) {
+                return;
+            }
+            SectionPortals neighbor = portals(nx, ny, nz);
+            if (neighbor == null) {
+                open(current, key(nx, ny, nz, UNKNOWN), UNKNOWN_HALF_COST);
+                return;
+            }
+            long reached = here.crossings(p, neighbor);
+            while (reached != 0) {
+                int q = Long.numberOfTrailingZeros(reached);
+                reached &= reached - 1;
+                open(current, key(nx, ny, nz, q), 1);
+            }
+        }
+
+        private void open(int parent, long key, double cost) {
+            int node = nodes.getOrCreate(key);
+            if (nodes.isClosed(node)) {
+                return;
+            }
+            double g = (parent == PathNodeStore.NO_NODE ? 0 : nodes.gCost(parent)) + cost;
+            if (g < nodes.gCost(node)) {
+                double h = key == GOAL ? 0 : Math.sqrt(position(key).distSqr(target)) * 1.2;
+                nodes.update(node, parent, g, h);
+                nodes.push(node);
+            }
+        }
+
+        private List<BlockPos> reconstruct(int goal) {
+            List<BlockPos> waypoints = new ArrayList<>();
+            waypoints.add(target);
+            for (int node = nodes.parent(goal); node != PathNodeStore.NO_NODE; node = nodes.parent(node)) {
+                waypoints.add(position(nodes.pos(node)));
+            }
+            Collections.reverse(waypoints);
+            return waypoints;
+        }
+
+        private long key(int sx, int sy, int sz, int portal) {
+            return (((long) sx * snapshot.sizeY() + sy) * snapshot.sizeZ() + sz) << 7 | portal;
+        }
+
+        private BlockPos position(long key) {
+            int p = (int) (key & 127);
+            long section = key >> 7;
+            int sz = (int) (section % snapshot.sizeZ());
+            int sy = (int) ((section / snapshot.sizeZ()) % snapshot.sizeY());
+            int sx = (int) (section / snapshot.sizeZ() / snapshot.sizeY());
+            int baseX = SectionPos.sectionToBlockCoord(snapshot.minSx() + sx);
+            int baseY = SectionPos.sectionToBlockCoord(snapshot.minSy() + sy);
+            int baseZ = SectionPos.sectionToBlockCoord(snapshot.minSz() + sz);
+            if (p == UNKNOWN) {
+                return new BlockPos(baseX + 8, baseY + 8, baseZ + 8);
+            }
+            int cell = portals(sx, sy, sz).cell[p];
+            return new BlockPos(baseX + (cell & 15), baseY + (cell >>> 8), baseZ + ((cell >>> 4) & 15));
+        }
+
+        /**
+         * Portal data for a section, or null if the snapshot doesn't have it.
+         */
+        private SectionPortals portals(int sx, int sy, int sz) {
+            long key = ((long) sx * snapshot.sizeY() + sy) * snapshot.sizeZ() + sz;
+            SectionPortals result = portals.get(key);
+            if (result == null && !portals.containsKey(key)) {
+                SectionNav self = snapshot.section(sx, sy, sz);
+                result = self == null ? null
+                        : SectionPortals.of(snapshot.section(sx, sy - 1, sz), self, snapshot.section(sx, sy + 1, sz));
+                portals.put(key, result);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Portals of one section and the walking distances between them.
+     * Immutable once built; shared between threads through the cache.
+     */
+    static final class SectionPortals {
+        private static final SectionPortals NONE = new SectionPortals(null, SectionNav.EMPTY, null);
+        // Layers of passable cells kept: one below the section to two above it
+        private static final int MIN_LAYER = -1;
+        private static final int MAX_LAYER = 17;
+
+        // The sections this was built from (standing room depends on the blocks above and below)
+        private final WeakReference<SectionNav> below;
+        private final WeakReference<SectionNav> self;
+        private final WeakReference<SectionNav> above;
+
+        // Passable cells from MIN_LAYER to MAX_LAYER, copied from the sections when built
+        private final long[] passableBits = new long[(MAX_LAYER - MIN_LAYER + 1) * 4];
+        private final long[] standable = new long[64];
+        private int count;
+        private final int[] cell = new int[MAX_PORTALS];
+        private final int[] face = new int[MAX_PORTALS];
+        private final int[][] members = new int[MAX_PORTALS][];
+        // Portal id + 1 for every face cell, 0 = not part of a portal
+        private final byte[] facePortal = new byte[6 * 256];
+        // count * count walking distances between representative cells, -1 = unreachable
+        private short[] dist = new short[0];
+
+        private SectionPortals(SectionNav below, SectionNav self, SectionNav above) {
+            this.below = new WeakReference<>(below);
+            this.self = new WeakReference<>(self);
+            this.above = new WeakReference<>(above);
+        }
+
+        private boolean builtFrom(SectionNav below, SectionNav self, SectionNav above) {
+            return this.below.get() == below && this.self.get() == self && this.above.get() == above;
+        }
+
+        static SectionPortals of(SectionNav below, SectionNav self, SectionNav above) {
+            if (self == SectionNav.EMPTY && (below == null || below == SectionNav.EMPTY)) {
+                return NONE; // Open air over open air: nothing to stand on
+            }
+            Map<SectionNav, SectionPortals> map = self == SectionNav.EMPTY ? emptyCache : cache;
+            SectionNav key = self == SectionNav.EMPTY ? below : self;
+            SectionPortals cached = map.get(key);
+            if (cached != null && cached.builtFrom(below, self, above)) {
+                return cached;
+            }
+            SectionPortals built = new SectionPortals(below, self, above);
+            built.build(below, self, above);
+            map.put(key, built);
+            return built;
+        }
+
+        private void build(SectionNav below, SectionNav self, SectionNav above) {
+            // Missing sections above read as open, missing sections below as blocked
+            for (int y = MIN_LAYER; y <= MAX_LAYER; y++) {
+                SectionNav source = y < 0 ? below : y > 15 ? above : self;
+                for (int zx = 0; zx < 256; zx++) {
+                    int bit = (y - MIN_LAYER) * 256 + zx;
+                    boolean open = source == null ? y > 15 : source.passable(cellIndex(zx & 15, y, zx >>> 4));
+                    if (open) {
+                        passableBits[bit >>> 6] |= 1L << bit;
+                    }
+                }
+            }
+            for (int i = 0; i < 4096; i++) {
+                if (computeStandable(below, self, i & 15, i >>> 8, (i >>> 4) & 15)) {
+                    standable[i >>> 6] |= 1L << i;
+                }
+            }
+
+            // Group the standable cells of each face into runs (union-find over the 16x16 face)
+            int[] parent = new int[256];
+            for (int f = 0; f < 6 && count < MAX_PORTALS; f++) {
+                for (int uv = 0; uv < 256; uv++) {
+                    parent[uv] = isStandable(faceCell(f, uv & 15, uv >>> 4)) ? uv : -1;
+                }
+                for (int uv = 0; uv < 256; uv++) {
+                    if (parent[uv] < 0) {
+                        continue;
+                    }
+                    int u = uv & 15;
+                    int v = uv >>> 4;
+                    if (u < 15) {
+                        union(parent, uv, uv + 1);
+                        // Side faces: runs follow terrain one block up or down
+                        if (f < DOWN) {
+                            if (v < 15) union(parent, uv, uv + 17);
+                            if (v > 0) union(parent, uv, uv - 15);
+                        }
+                    }
+                    if (v < 15) {
+                        union(parent, uv, uv + 16);
+                    }
+                }
+                collectPortals(f, parent);
+            }
+
+            dist = new short[count * count];
+            for (int p = 0; p < count; p++) {
+                short[] fromP = bfs(cell[p]);
+                for (int q = 0; q < count; q++) {
+                    dist[p * count + q] = fromP[cell[q]];
+                }
+            }
+        }
+
+        private void collectPortals(int f, int[] parent) {
+            int[] runPortal = new int[256];
+            Arrays.fill(runPortal, -1);
+            int[] runSize = new int[256];
+            for (int uv = 0; uv < 256; uv++) {
+                if (parent[uv] >= 0) {
+                    runSize[find(parent, uv)]++;
+                }
+            }
+            for (int uv = 0; uv < 256; uv++) {
+                if (parent[uv] < 0) {
+                    continue;
+                }
+                int root = find(parent, uv);
+                if (runPortal[root] < 0) {
+                    if (count == MAX_PORTALS) {
+                        continue;
+                    }
+                    runPortal[root] = count;
+                    face[count] = f;
+                    members[count] = new int[runSize[root]];
+                    runSize[root] = 0;
+                    count++;
+                }
+                int p = runPortal[root];
+                members[p][runSize[root]++] = faceCell(f, uv & 15, uv >>> 4);
+                facePortal[f * 256 + uv] = (byte) (p + 1);
+            }
+            // Representative cell: the member closest to the run's centre
+            for (int root = 0; root < 256; root++) {
+                int p = runPortal[root];
+                if (p < 0) {
+                    continue;
+                }
+                double cx = 0, cy = 0, cz = 0;
+                for (int c : members[p]) {
+                    cx += c & 15;
+                    cy += c >>> 8;
+                    cz += (c >>> 4) & 15;
+                }
+                int n = members[p].length;
+                double best = Double.MAX_VALUE;
+                for (int c : members[p]) {
+                    double dx = (c & 15) - cx / n;
+                    double dy = (c >>> 8) - cy / n;
+                    double dz = ((c >>> 4) & 15) - cz / n;
+                    double d = dx * dx + dy * dy + dz * dz;
+                    if (d < best) {
+                        best = d;
+                        cell[p] = c;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Walking distance from a cell to every portal, or null if the cell
+         * isn't somewhere a mob can stand.
+         */
+        short[] distancesFrom(int index) {
+            if (!isStandable(index)) {
+                return null;
+            }
+            short[] fromCell = bfs(index);
+            short[] result = new short[count];
+            for (int p = 0; p < count; p++) {
+                result[p] = fromCell[cell[p]];
+            }
+            return result;
+        }
+
+        /**
+         * Portals of the neighbouring section reachable in one move from any cell of
+         * portal p, as a bitmask of portal ids.
+         */
+        long crossings(int p, SectionPortals neighbor) {
+            int f = face[p];
+            int[] normal = FACE_NORMALS[f];
+            long reached = 0;
+            for (int c : members[p]) {
+                int x = c & 15;
+                int y = c >>> 8;
+                int z = (c >>> 4) & 15;
+                if (f < DOWN) {
+                    int tx = (x + normal[0]) & 15;
+                    int tz = (z + normal[2]) & 15;
+                    for (int dy : STEP_HEIGHTS) {
+                        int ty = y + dy;
+                        if (ty < 0 || ty > 15 || !neighbor.isStandable(cellIndex(tx, ty, tz))) {
+                            continue;
+                        }
+                        if (dy == 1 && !passable(x, y + 2, z)) {
+                            continue;
+                        }
+                        if (dy < 0 && !neighbor.clearColumn(tx, ty + 2, y + 1, tz)) {
+                            continue;
+                        }
+                        reached |= neighbor.portalBit(f ^ 1, tx, ty, tz);
+                    }
+                } else {
+                    // Top/bottom faces: a step up into the section above, or down into the one below
+                    for (int[] d : CARDINALS) {
+                        int tx = x + d[0];
+                        int tz = z + d[1];
+                        if (tx < 0 || tx > 15 || tz < 0 || tz > 15) {
+                            continue;
+                        }
+                        int ty = f == UP ? 0 : 15;
+                        if (!neighbor.isStandable(cellIndex(tx, ty, tz))) {
+                            continue;
+                        }
+                        if (f == UP ? !passable(x, y + 2, z) : !passable(tx, y, tz) || !passable(tx, y + 1, tz)) {
+                            continue;
+                        }
+                        reached |= neighbor.portalBit(f ^ 1, tx, ty, tz);
+                    }
+                }
+            }
+            return reached;
+        }
+
+        private long portalBit(int f, int x, int y, int z) {
+            int uv = f < NORTH ? (y << 4) | z : f < DOWN ? (y << 4) | x : (z << 4) | x;
+            int p = facePortal[f * 256 + uv] - 1;
+            return p < 0 ? 0 : 1L << p;
+        }
+
+        private short[] bfs(int from) {
+            short[] distance = new short[4096];
+            Arrays.fill(distance, (short) -1);
+            int[] queue = new int[4096];
+            int head = 0;
+            int tail = 0;
+            distance[from] = 0;
+            queue[tail++] = from;
+            while (head < tail) {
+                int c = queue[head++];
+                int x = c & 15;
+                int y = c >>> 8;
+                int z = (c >>> 4) & 15;
+                for (int[] d : CARDINALS) {
+                    int tx = x + d[0];
+                    int tz = z + d[1];
+                    if (tx < 0 || tx > 15 || tz < 0 || tz > 15) {
+                        continue;
+                    }
+                    for (int dy : STEP_HEIGHTS) {
+                        int ty = y + dy;
+                        if (ty < 0 || ty > 15) {
+                            continue;
+                        }
+                        int t = cellIndex(tx, ty, tz);
+                        if (distance[t] >= 0 || !isStandable(t)) {
+                            continue;
+                        }
+                        if (dy == 1 && !passable(x, y + 2, z)) {
+                            continue;
+                        }
+                        if (dy < 0 && !clearColumn(tx, ty + 2, y + 1, tz)) {
+                            continue;
+                        }
+                        distance[t] = (short) (distance[c] + 1);
+                        queue[tail++] = t;
+                    }
+                }
+            }
+            return distance;
+        }
+
+        private boolean computeStandable(SectionNav below, SectionNav self, int x, int y, int z) {
+            int i = cellIndex(x, y, z);
+            if (!self.passable(i) || self.danger(i) || !passable(x, y + 1, z)) {
+                return false;
+            }
+            int floor = cellIndex(x, y - 1, z);
+            if (y > 0) {
+                return self.floor(floor) && !self.danger(floor);
+            }
+            return below != null && below.floor(floor) && !below.danger(floor);
+        }
+
+        boolean isStandable(int index) {
+            return (standable[index >>> 6] & (1L << index)) != 0;
+        }
+
+        /**
+         * Passable at local coordinates, reading into the layers kept from the
+         * sections above and below.
+         */
+        private boolean passable(int x, int y, int z) {
+            if (y < MIN_LAYER || y > MAX_LAYER) {
+                return y > MAX_LAYER;
+            }
+            int bit = (y - MIN_LAYER) * 256 + (z << 4) + x;
+            return (passableBits[bit >>> 6] & (1L << bit)) != 0;
+        }
+
+        private boolean clearColumn(int x, int fromY, int toY, int z) {
+            for (int y = fromY; y <= toY; y++) {
+                if (!passable(x, y, z)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int faceCell(int f, int u, int v) {
+            return switch (f) {
+                case WEST -> cellIndex(0, v, u);
+                case EAST -> cellIndex(15, v, u);
+                case NORTH -> cellIndex(u, v, 0);
+                case SOUTH -> cellIndex(u, v, 15);
+                case DOWN -> cellIndex(u, 0, v);
+                default -> cellIndex(u, 15, v);
+            };
+        }
+
+        private static int cellIndex(int x, int y, int z) {
+            return SectionNav.index(x, y, z);
+        }
+
+        private static void union(int[] parent, int a, int b) {
+            if (parent[b] < 0) {
+                return;
+            }
+            int rootA = find(parent, a);
+            int rootB = find(parent, b);
+            if (rootA != rootB) {
+                parent[rootB] = rootA;
+            }
+        }
+
+        private static int find(int[] parent, int a) {
+            while (parent[a] != a) {
+                parent[a] = parent[parent[a]];
+                a = parent[a];
+            }
+            return a;
+        }
+    }
+}
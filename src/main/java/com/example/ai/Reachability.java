@@ -0,0 +1,463 @@
+package com.example.ai;
+
+import com.example.ai.NavigabilityIndex.SectionNav;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.entity.Mob;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.Level;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Walking components around each hunted player, so that "can this mob walk
+ * to the player at all?" is a constant-time label comparison instead of a
+ * search. Mobs here climb walls, so what a walk can reach is bounded by the
+ * open space it starts in: a component is a 26-connected region of passable
+ * cells. Each section's cells are labelled once (cached with the section, so
+ * only changed sections are labelled again) and the sections around the
+ * player are merged with a union-find. Everything that leaves the captured box
+ * or enters an unloaded section merges into one outside component, since a
+ * walk could come back anywhere. Different labels mean walking can't get
+ * there (the player is sealed in, or the mob is); the same label doesn't
+ * promise a route.
+ *
+ * Labels are rebuilt in the background (as AsyncPathfinder jobs) when a
+ * section in the box changes or the player moves on.
+ *
+ * Server thread only, apart from the build jobs.
+ */
+public final class Reachability {
+
+    // Sections captured around the player's section
+    private static final int RADIUS_SECTIONS = 3;
+    private static final int RADIUS_SECTIONS_Y = 2;
+    // Rebuild once the player is this many sections from the box's centre
+    private static final int RECENTRE_SECTIONS = 1;
+    // Budget charged per section for labelling it (almost free when cached) and for merging it
+    private static final int LABEL_COST = 300;
+    private static final int MERGE_COST = 100;
+    // While blocks keep changing (a siege breaks blocks all the time), rebuild at most this often
+    private static final long MIN_REBUILD_TICKS = 40;
+    // Drop labels nobody has asked for in this long
+    private static final long STALE_TICKS = 200;
+
+    // Union-find node of the outside component
+    private static final int OUTSIDE = 0;
+    // Label of a cell that isn't passable or isn't in the box
+    private static final int NO_LABEL = -1;
+
+    // Cell indices on the faces of a section
+    private static final int[] BOUNDARY = boundaryCells();
+
+    private static final Map<UUID, PlayerLabels> labels = new ConcurrentHashMap<>();
+    // Keyed by section identity: a changed section is a new (copied) SectionNav
+    private static final Map<SectionNav, SectionComponents> sectionCache = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private Reachability() {
+    }
+
+    public static void register() {
+        ServerTickEvents.END_SERVER_TICK.register(server -> tick());
+    }
+
+    /**
+     * True if the mob and the target player are in different walking
+     * components, so walking alone can't get the mob there. Only a hint for the
+     * layered search; false whenever the labels can't tell.
+     */
+    public static boolean isWalkUnreachable(Mob mob, Player target) {
+        PlayerLabels entry = labels.computeIfAbsent(target.getUUID(), id -> new PlayerLabels(target));
+        entry.player = target;
+        entry.lastRequested = target.level().getGameTime();
+
+        Labels current = entry.current;
+        if (current == null || current.dimension != mob.level().dimension()) {
+            return false;
+        }
+        int targetLabel = current.label(target.blockPosition());
+        int mobLabel = current.label(mob.blockPosition());
+        return targetLabel != NO_LABEL && mobLabel != NO_LABEL && targetLabel != mobLabel;
+    }
+
+    public static void clearAll() {
+        labels.values().forEach(PlayerLabels::cancelBuild);
+        labels.clear();
+    }
+
+    private static void tick() {
+        Iterator<PlayerLabels> iterator = labels.values().iterator();
+        while (iterator.hasNext()) {
+            PlayerLabels entry = iterator.next();
+            Player player = entry.player;
+            long now = player.level().getGameTime();
+            if (player.isRemoved() || now - entry.lastRequested > STALE_TICKS) {
+                entry.cancelBuild();
+                iterator.remove();
+                continue;
+            }
+
+            if (entry.building != null) {
+                if (!entry.building.isFinished()) {
+                    continue;
+                }
+                entry.publish(now);
+            }
+
+            if (entry.needsRebuild(player, now)) {
+                entry.startBuild(player.level(), player.blockPosition());
+            }
+        }
+    }
+
+    /**
+     * The published labels of one player and the build replacing them.
+     */
+    private static final class PlayerLabels {
+        Player player;
+        long lastRequested;
+
+        Labels current;
+        long builtAt;
+        Build building;
+
+        PlayerLabels(Player player) {
+            this.player = player;
+        }
+
+        boolean needsRebuild(Player player, long now) {
+            if (current == null || current.dimension != player.level().dimension()) {
+                return true;
+            }
+            BlockPos pos = player.blockPosition();
+            if (Math.abs(SectionPos.blockToSectionCoord(pos.getX()) - current.centre.getX()) > RECENTRE_SECTIONS
+                    || Math.abs(SectionPos.blockToSectionCoord(pos.getY()) - current.centre.getY()) > RECENTRE_SECTIONS
+                    || Math.abs(SectionPos.blockToSectionCoord(pos.getZ()) - current.centre.getZ()) > RECENTRE_SECTIONS) {
+                return true;
+            }
+            return now - builtAt >= MIN_REBUILD_TICKS && !current.dependencies.isCurrent(player.level());
+        }
+
+        void startBuild(Level level, BlockPos centre) {
+            int horizontal = RADIUS_SECTIONS * 16;
+            int vertical = RADIUS_SECTIONS_Y * 16;
+            NavSnapshot snapshot = NavSnapshot.captureArea(level,
+                    centre.offset(-horizontal, -vertical, -horizontal), centre.offset(horizontal, vertical, horizontal));
+            building = new Build(snapshot, SectionPos.of(centre), level.dimension());
+            AsyncPathfinder.schedule(building);
+        }
+
+        void publish(long now) {
+            Build finished = building;
+            building = null;
+            if (finished.cancelled) {
+                return;
+            }
+            current = finished.result;
+            builtAt = now;
+        }
+
+        void cancelBuild() {
+            if (building != null) {
+                building.cancelled = true;
+            }
+        }
+    }
+
+    /**
+     * Components of the passable cells of one section, with moves inside the
+     * section only. Immutable once built; shared between threads through the cache.
+     */
+    static final class SectionComponents {
+        // Component (from 1) of every cell, 0 = not passable
+        final short[] component = new short[4096];
+        int count;
+
+        static SectionComponents of(SectionNav section) {
+            SectionComponents cached = sectionCache.get(section);
+            if (cached == null) {
+                cached = new SectionComponents();
+                cached.build(section);
+                sectionCache.put(section, cached);
+            }
+            return cached;
+        }
+
+        private void build(SectionNav section) {
+            int[] parent = new int[4096];
+            for (int i = 0; i < 4096; i++) {
+                parent[i] = section.passable(i) ? i : -1;
+            }
+            for (int i = 0; i < 4096; i++) {
+                if (parent[i] < 0) {
+                    continue;
+                }
+                int x = i & 15;
+                int y = i >>> 8;
+                int z = (i >>> 4) & 15;
+                // Half of the 26 neighbours: the other half links back to this cell
+                for (int dy = 0; dy <= 1; dy++) {
+                    for (int dz = dy == 0 ? 0 : -1; dz <= 1; dz++) {
+                        for (int dx = dy == 0 && dz == 0 ? 1 : -1; dx <= 1; dx++) {
+                            int tx = x + dx;
+                            int ty = y + dy;
+                            int tz = z + dz;
+                            if (tx < 0 || tx > 15 || ty > 15 || tz < 0 || tz > 15) {
+                                continue;
+                            }
+                            int t = SectionNav.index(tx, ty, tz);
+                            if (parent[t] >= 0) {
+                                union(parent, i, t);
+                            }
+                        }
+                    }
+                }
+            }
+            for (int i = 0; i < 4096; i++) {
+                if (parent[i] < 0) {
+                    continue;
+                }
+                int root = find(parent, i);
+                if (component[root] == 0) {
+                    component[root] = (short) ++count;
+                }
+                component[i] = component[root];
+            }
+        }
+    }
+
+    /**
+     * Finished labels: per captured section its components and where they
+     * start among the union-find nodes, and the root of every node.
+     */
+    private static final class Labels {
+        final NavSnapshot snapshot;
+        final SectionPos centre;
+        final ResourceKey<Level> dimension;
+        final SectionVersions dependencies;
+        final SectionComponents[] sections;
+        final int[] base;
+        final int[] root;
+
+        Labels(NavSnapshot snapshot, SectionPos centre, ResourceKey<Level> dimension, SectionVersions dependencies,
+                SectionComponents[] sections, int[] base, int[] root) {
+            this.snapshot = snapshot;
+            this.centre = centre;
+            this.dimension = dimension;
+            this.dependencies = dependencies;
+            this.sections = sections;
+            this.base = base;
+            this.root = root;
+        }
+
+        int label(BlockPos pos) {
+            int label = labelAt(pos);
+            // Feet in a partial block (a slab, snow): try the cell above
+            return label != NO_LABEL ? label : labelAt(pos.above());
+        }
+
+        private int labelAt(BlockPos pos) {
+            int sx = SectionPos.blockToSectionCoord(pos.getX()) - snapshot.minSx();
+            int sy = SectionPos.blockToSectionCoord(pos.getY()) - snapshot.minSy();
+            int sz = SectionPos.blockToSectionCoord(pos.getZ()) - snapshot.minSz();
+            if (!snapshot.contains(sx, sy, sz)) {
+                return NO_LABEL;
+            }
+            int slot = snapshot.slot(sx, sy, sz);
+            SectionComponents section = sections[slot];
+            if (section == null) {
+                return NO_LABEL;
+            }
+            int component = section.component[SectionNav.index(pos.getX(), pos.getY(), pos.getZ())];
+            return component == 0 ? NO_LABEL : root[base[slot] + component - 1];
+        }
+    }
+
+    /**
+     * Labels every section, then merges each with its neighbours across its
+     * boundary cells, in budgeted slices.
+     */
+    private static final class Build implements AsyncPathfinder.SlicedJob {
+        final NavSnapshot snapshot;
+        final SectionPos centre;
+        final ResourceKey<Level> dimension;
+        final SectionVersions dependencies;
+        final SectionComponents[] sections;
+        private int labelled;
+        private int merged;
+        private int[] base;
+        private int[] parent;
+        Labels result;
+        volatile boolean done;
+        volatile boolean cancelled;
+
+        Build(NavSnapshot snapshot, SectionPos centre, ResourceKey<Level> dimension) {
+            this.snapshot = snapshot;
+            this.centre = centre;
+            this.dimension = dimension;
+            this.sections = new SectionComponents[snapshot.sizeX() * snapshot.sizeY() * snapshot.sizeZ()];
+            long[] keys = new long[sections.length];
+            for (int slot = 0; slot < sections.length; slot++) {
+                keys[slot] = SectionPos.asLong(snapshot.minSx() + sx(slot), snapshot.minSy() + sy(slot), snapshot.minSz() + sz(slot));
+            }
+            this.dependencies = SectionVersions.ofSections(keys, snapshot.version());
+        }
+
+        @Override
+        public void run(int budget) {
+            while (labelled < sections.length && budget > 0 && !cancelled) {
+                int slot = labelled++;
+                SectionNav section = snapshot.section(sx(slot), sy(slot), sz(slot));
+                if (section != null) {
+                    sections[slot] = SectionComponents.of(section);
+                }
+                budget -= LABEL_COST;
+            }
+            if (labelled < sections.length && !cancelled) {
+                return; // Out of budget: park until next tick
+            }
+
+            if (parent == null && !cancelled) {
+                base = new int[sections.length];
+                int nodes = OUTSIDE + 1;
+                for (int slot = 0; slot < sections.length; slot++) {
+                    if (sections[slot] != null) {
+                        base[slot] = nodes;
+                        nodes += sections[slot].count;
+                    }
+                }
+                parent = new int[nodes];
+                for (int node = 0; node < nodes; node++) {
+                    parent[node] = node;
+                }
+            }
+            while (merged < sections.length && budget > 0 && !cancelled) {
+                mergeBoundary(merged++);
+                budget -= MERGE_COST;
+            }
+            if (merged < sections.length && !cancelled) {
+                return;
+            }
+
+            if (!cancelled) {
+                for (int node = 0; node < parent.length; node++) {
+                    parent[node] = find(parent, node);
+                }
+                result = new Labels(snapshot, centre, dimension, dependencies, sections, base, parent);
+            }
+            done = true;
+        }
+
+        /**
+         * Union every passable boundary cell of a section with the passable
+         * cells next to it in the neighbouring sections, or with the outside.
+         */
+        private void mergeBoundary(int slot) {
+            SectionComponents here = sections[slot];
+            if (here == null) {
+                return;
+            }
+            int sx = sx(slot);
+            int sy = sy(slot);
+            int sz = sz(slot);
+            for (int i : BOUNDARY) {
+                if (here.component[i] == 0) {
+                    continue;
+                }
+                int x = i & 15;
+                int y = i >>> 8;
+                int z = (i >>> 4) & 15;
+                int node = base[slot] + here.component[i] - 1;
+                for (int dy = -1; dy <= 1; dy++) {
+                    for (int dz = -1; dz <= 1; dz++) {
+                        for (int dx = -1; dx <= 1; dx++) {
+                            int tx = x + dx;
+                            int ty = y + dy;
+                            int tz = z + dz;
+                            if (tx >= 0 && tx <= 15 && ty >= 0 && ty <= 15 && tz >= 0 && tz <= 15) {
+                                continue; // Inside this section: already labelled
+                            }
+                            int nx = sx + Math.floorDiv(tx, 16);
+                            int ny = sy + Math.floorDiv(ty, 16);
+                            int nz = sz + Math.floorDiv(tz, 16);
+                            int neighborSlot = snapshot.contains(nx, ny, nz) ? snapshot.slot(nx, ny, nz) : -1;
+                            SectionComponents neighbor = neighborSlot < 0 ? null : sections[neighborSlot];
+                            if (neighbor == null) {
+                                // Out of the box or into an unloaded section
+                                union(parent, node, OUTSIDE);
+                                continue;
+                            }
+                            if (neighborSlot < slot) {
+                                continue; // That section links back to this one
+                            }
+                            int component = neighbor.component[SectionNav.index(tx, ty, tz)];
+                            if (component != 0) {
+                                union(parent, node, base[neighborSlot] + component - 1);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        // Slots follow NavSnapshot.slot(): x fastest, then z, then y
+
+        private int sx(int slot) {
+            return slot % snapshot.sizeX();
+        }
+
+        private int sz(int slot) {
+            return slot / snapshot.sizeX() % snapshot.sizeZ();
+        }
+
+        private int sy(int slot) {
+            return slot / snapshot.sizeX() / snapshot.sizeZ();
+        }
+
+        @Override
+        public boolean isFinished() {
+            return done;
+        }
+
+        @Override
+        public void abandon() {
+        }
+    }
+
+    private static int[] boundaryCells() {
+        int[] cells = new int[4096 - 14 * 14 * 14];
+        int n = 0;
+        for (int i = 0; i < 4096; i++) {
+            int x = i & 15;
+            int y = i >>> 8;
+            int z = (i >>> 4) & 15;
+            if (x == 0 || x == 15 || y == 0 || y == 15 || z == 0 || z == 15) {
+                cells[n++] = i;
+            }
+        }
+        return cells;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA != rootB) {
+            parent[rootB] = rootA;
+        }
+    }
+
+    private static int find(int[] parent, int a) {
+        while (parent[a] != a) {
+            parent[a] = parent[parent[a]];
+            a = parent[a];
+        }
+        return a;
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.ai;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Memo of finished layered searches by dimension, exact start and target, and
+ * the walkUnreachable hint. Mobs spawned at the same spawner keep asking for
+ * the same search within seconds; a remembered outcome is handed out again as
+ * long as none of the sections the search read blocks from has changed since
+ * its snapshot. Break costs also depend on planned breaches and break
+ * progress, which change no section version: a new breach or damaged block
+ * drops the entries that read its section (see onBreakStateChanged()), and
+ * any breach expiring drops them all. Breaches expire without notice, so
+ * entries don't outlive MobPathManager.BREACH_TTL_MS either. Least recently
+ * used entries are evicted beyond MAX_ENTRIES. Server thread only.
+ */
+public final class SearchCache {
+
+    private static final int MAX_ENTRIES = 128;
+    // Break state changes remembered for searches still running when they happened
+    private static final int RECENT_CHANGES = 256;
+
+    private static final Map<Key, Entry> entries = new LinkedHashMap<>(MAX_ENTRIES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    // Section (SectionPos key) of break state change n at n % RECENT_CHANGES; breakChanges counts them all
+    private static final long[] recentChanges = new long[RECENT_CHANGES];
+    private static int breakChanges = 0;
+
+    // Since the last resetStats()
+    private static int hits = 0;
+    private static int misses = 0;
+
+    private SearchCache() {
+    }
+
+    /**
+     * What a search is for: the same key always gives the same search.
+     */
+    public static final class Key {
+        final ResourceKey<Level> dimension;
+        final long start;
+        final long target;
+        final boolean walkUnreachable;
+
+        public Key(ResourceKey<Level> dimension, BlockPos start, BlockPos target, boolean walkUnreachable) {
+            this.dimension = dimension;
+            this.start = start.asLong();
+            this.target = target.asLong();
+            this.walkUnreachable = walkUnreachable;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && start == other.start && target == other.target
+                    && walkUnreachable == other.walkUnreachable && dimension == other.dimension;
+        }
+
+        @Override
+        public int hashCode() {
+            return (Long.hashCode(start) * 31 + Long.hashCode(target)) * 31 + (walkUnreachable ? 1 : 0);
+        }
+    }
+
+    private static final class Entry {
+        final MobPathManager.SearchOutcome outcome;
+        final SectionVersions dependencies;
+        final int breachExpiryEpoch;
+        final long createdAt;
+
+        Entry(MobPathManager.SearchOutcome outcome, SectionVersions dependencies, int breachExpiryEpoch, long createdAt) {
+            this.outcome = outcome;
+            this.dependencies = dependencies;
+            this.breachExpiryEpoch = breachExpiryEpoch;
+            this.createdAt = createdAt;
+        }
+
+        boolean isCurrent(Level level) {
+            return breachExpiryEpoch == MobPathManager.breachExpiryEpoch()
+                    && System.currentTimeMillis() - createdAt <= MobPathManager.BREACH_TTL_MS
+                    && dependencies.isCurrent(level);
+        }
+    }
+
+    /**
+     * The remembered outcome for key, or null if there is none or what it read has changed.
+     */
+    public static MobPathManager.SearchOutcome lookup(Level level, Key key) {
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.isCurrent(level)) {
+            entries.remove(key);
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.outcome;
+    }
+
+    /**
+     * Remember an outcome, valid while the given sections stay unchanged.
+     * breakStateEpoch is breakStateEpoch() and breachExpiryEpoch is
+     * MobPathManager.breachExpiryEpoch() from when the search was queued; the
+     * outcome isn't kept if the break state it may have read changed since.
+     */
+    public static void store(Key key, MobPathManager.SearchOutcome outcome, SectionVersions dependencies, int breakStateEpoch,
+            int breachExpiryEpoch) {
+        if (breachExpiryEpoch != MobPathManager.breachExpiryEpoch() || breakChanges - breakStateEpoch > RECENT_CHANGES) {
+            return;
+        }
+        for (int change = breakStateEpoch; change < breakChanges; change++) {
+            if (dependencies.covers(recentChanges[change % RECENT_CHANGES])) {
+                return;
+            }
+        }
+        entries.put(key, new Entry(outcome, dependencies, breachExpiryEpoch, System.currentTimeMillis()));
+    }
+
+    /**
+     * Count of break state changes so far, to pass to store().
+     */
+    public static int breakStateEpoch() {
+        return breakChanges;
+    }
+
+    /**
+     * A breach was planned at pos or the block there was damaged, which changes
+     * its break cost: forget the searches that read its section (in any dimension).
+     */
+    public static void onBreakStateChanged(BlockPos pos) {
+        long section = SectionPos.asLong(SectionPos.blockToSectionCoord(pos.getX()),
+                SectionPos.blockToSectionCoord(pos.getY()), SectionPos.blockToSectionCoord(pos.getZ()));
+        entries.values().removeIf(entry -> entry.dependencies.covers(section));
+        recentChanges[breakChanges % RECENT_CHANGES] = section;
+        breakChanges++;
+    }
+
+    public static String stats() {
+        int total = hits + misses;
+        return String.format("search cache %d hits, %d misses (%.0f%%), %d entries", hits, misses,
+                total == 0 ? 0.0 : hits * 100.0 / total, entries.size());
+    }
+
+    public static void resetStats() {
+        hits = 0;
+        misses = 0;
+    }
+
+    public static void clearAll() {
+        entries.clear();
+        resetStats();
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.ai;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.Level;
+
+import java.util.Arrays;
+
+/**
+ * The chunk sections a path depends on, and the NavigabilityIndex level
+ * version it was planned at. The path stays valid until a block in one of
+ * those sections changes after that version. Server thread only.
+ */
+public final class SectionVersions {
+
+    // Sorted, for covers()
+    private final long[] keys;
+    private int version;
+
+    private SectionVersions(long[] keys, int version) {
+        Arrays.sort(keys);
+        this.keys = keys;
+        this.version = version;
+    }
+
+    /**
+     * Record the sections holding the blocks the path stands in and on,
+     * including those between waypoints. version is the level version the
+     * path was planned at (NavSnapshot.version() for a searched path).
+     */
+    public static SectionVersions of(PackedPath path, int version) {
+        LongOpenHashSet keys = new LongOpenHashSet();
+        for (int i = 0; i < path.size(); i++) {
+            long pos = path.pos(i);
+            if (i > 0) {
+                // String-pulled segments skip blocks; sample the line between the waypoints
+                long previous = path.pos(i - 1);
+                int dx = BlockPos.getX(pos) - BlockPos.getX(previous);
+                int dy = BlockPos.getY(pos) - BlockPos.getY(previous);
+                int dz = BlockPos.getZ(pos) - BlockPos.getZ(previous);
+                int steps = Math.max(Math.abs(dx), Math.abs(dz));
+                for (int step = 1; step < steps; step++) {
+                    addColumn(keys, BlockPos.offset(previous, Math.round((float) dx * step / steps),
+                            Math.round((float) dy * step / steps), Math.round((float) dz * step / steps)));
+                }
+            }
+            addColumn(keys, pos);
+        }
+        return new SectionVersions(keys.toLongArray(), version);
+    }
+
+    /**
+     * The given sections (SectionPos keys), as of the given level version.
+     */
+    public static SectionVersions ofSections(long[] keys, int version) {
+        return new SectionVersions(keys, version);
+    }
+
+    /**
+     * False once a block in any of the sections has changed since the path was planned.
+     */
+    public boolean isCurrent(Level level) {
+        for (long key : keys) {
+            if (NavigabilityIndex.sectionVersion(level, key) > version) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether the given section (SectionPos key) is one of the sections.
+     */
+    public boolean covers(long sectionKey) {
+        return Arrays.binarySearch(keys, sectionKey) >= 0;
+    }
+
+    /**
+     * Accept every change so far, for changes the path itself made (a block
+     * broken or placed along it).
+     */
+    public void refresh(Level level) {
+        version = NavigabilityIndex.levelVersion(level);
+    }
+
+    // The floor below, feet and head
+    private static void addColumn(LongOpenHashSet keys, long pos) {
+        int x = SectionPos.blockToSectionCoord(BlockPos.getX(pos));
+        int z = SectionPos.blockToSectionCoord(BlockPos.getZ(pos));
+        int y = BlockPos.getY(pos);
+        keys.add(SectionPos.asLong(x, SectionPos.blockToSectionCoord(y - 1), z));
+        keys.add(SectionPos.asLong(x, SectionPos.blockToSectionCoord(y), z));
+        keys.add(SectionPos.asLong(x, SectionPos.blockToSectionCoord(y + 1), z));
+    }
+}
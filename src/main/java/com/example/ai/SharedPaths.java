@@ -0,0 +1,195 @@
+package com.example.ai;
+
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.entity.Mob;
+import net.minecraft.world.level.Level;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived cache of searched paths that other mobs can join.
+ * A pack spawned together mostly starts within a few blocks of each other and
+ * hunts the same player, so after the first search the rest can pick up its
+ * path at the nearest node instead of searching themselves.
+ *
+ * Paths are filed under their goal (a coarse cell of the target's block), each
+ * with the coarse cell of its start and its strategy layer. A mob joins a path
+ * that started in its own or a neighbouring start cell, preferring the lowest
+ * layer. Server thread only.
+ */
+public final class SharedPaths {
+
+    // Start cells are 8 blocks across, goal cells 2
+    private static final int START_SHIFT = 3;
+    private static final int GOAL_SHIFT = 1;
+    // A mob joins at the nearest node within this distance (and a block up or down)
+    private static final double JOIN_DISTANCE = 3.0;
+    // Shared paths are only trusted for this long, as terrain and the target keep changing
+    private static final long TTL_MS = 4000;
+    // Paths kept per goal cell; the oldest is dropped first
+    private static final int MAX_PER_GOAL = 8;
+    // Shorter paths aren't worth sharing
+    private static final int MIN_LENGTH = 3;
+    private static final int SWEEP_INTERVAL = 100;
+
+    private static final Map<GoalKey, List<Entry>> paths = new ConcurrentHashMap<>();
+    private static int sweepTicks = 0;
+
+    private SharedPaths() {
+    }
+
+    /**
+     * A path joined from the cache: the shared path from the joining node on.
+     */
+    public static final class Joined {
+        public final PackedPath path;
+        public final String strategy;
+        // NavigabilityIndex level version the path was planned at
+        public final int version;
+
+        Joined(PackedPath path, String strategy, int version) {
+            this.path = path;
+            this.strategy = strategy;
+            this.version = version;
+        }
+    }
+
+    private static final class Entry {
+        final long startCell;
+        final PackedPath path;
+        final String strategy;
+        final int layer;
+        final int version;
+        final long createdAt;
+
+        Entry(long startCell, PackedPath path, String strategy, int layer, int version, long createdAt) {
+            this.startCell = startCell;
+            this.path = path;
+            this.strategy = strategy;
+            this.layer = layer;
+            this.version = version;
+            this.createdAt = createdAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - createdAt > TTL_MS;
+        }
+
+        /**
+         * Index of the node nearest pos within JOIN_DISTANCE, or -1.
+         */
+        int nearestNode(BlockPos pos) {
+            int nearest = -1;
+            double nearestDistSq = JOIN_DISTANCE * JOIN_DISTANCE;
+            for (int i = 0; i < path.size(); i++) {
+                BlockPos node = path.get(i);
+                double distSq = node.distSqr(pos);
+                if (distSq <= nearestDistSq && Math.abs(node.getY() - pos.getY()) <= 1) {
+                    nearest = i;
+                    nearestDistSq = distSq;
+                }
+            }
+            return nearest;
+        }
+    }
+
+    private static final class GoalKey {
+        final ResourceKey<Level> dimension;
+        final long goalCell;
+
+        GoalKey(ResourceKey<Level> dimension, BlockPos target) {
+            this.dimension = dimension;
+            this.goalCell = BlockPos.asLong(target.getX() >> GOAL_SHIFT, target.getY() >> GOAL_SHIFT, target.getZ() >> GOAL_SHIFT);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof GoalKey other && goalCell == other.goalCell && dimension == other.dimension;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(goalCell) * 31 + System.identityHashCode(dimension);
+        }
+    }
+
+    public static void register() {
+        ServerTickEvents.END_SERVER_TICK.register(server -> {
+            if (++sweepTicks >= SWEEP_INTERVAL) {
+                sweepTicks = 0;
+                long now = System.currentTimeMillis();
+                paths.values().removeIf(entries -> {
+                    entries.removeIf(entry -> entry.isExpired(now));
+                    return entries.isEmpty();
+                });
+            }
+        });
+    }
+
+    /**
+     * Share a path a search found from its first node to target, planned at
+     * the given NavigabilityIndex level version.
+     */
+    public static void offer(Level level, BlockPos target, PackedPath path, String strategy, int layer, int version) {
+        if (path.size() < MIN_LENGTH) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<Entry> entries = paths.computeIfAbsent(new GoalKey(level.dimension(), target), key -> new ArrayList<>());
+        entries.removeIf(entry -> entry.isExpired(now));
+        if (entries.size() >= MAX_PER_GOAL) {
+            entries.remove(0);
+        }
+        entries.add(new Entry(startCell(path.get(0)), path, strategy, layer, version, now));
+    }
+
+    /**
+     * A shared path to target the mob can join, or null if none starts near it.
+     */
+    public static Joined join(Mob mob, BlockPos target) {
+        Level level = mob.level();
+        List<Entry> entries = paths.get(new GoalKey(level.dimension(), target));
+        if (entries == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        entries.removeIf(entry -> entry.isExpired(now));
+
+        BlockPos pos = mob.blockPosition();
+        long cell = startCell(pos);
+        Entry best = null;
+        int bestIndex = -1;
+        for (Entry entry : entries) {
+            if (!isNeighbourCell(entry.startCell, cell) || (best != null && entry.layer >= best.layer)
+                    || !entry.path.last().closerThan(target, 3.5)) {
+                continue;
+            }
+            int index = entry.nearestNode(pos);
+            // Joining at the last node would leave nothing to follow
+            if (index >= 0 && index < entry.path.size() - 1) {
+                best = entry;
+                bestIndex = index;
+            }
+        }
+        return best == null ? null : new Joined(best.path.from(bestIndex), best.strategy, best.version);
+    }
+
+    public static void clearAll() {
+        paths.clear();
+    }
+
+    private static long startCell(BlockPos pos) {
+        return BlockPos.asLong(pos.getX() >> START_SHIFT, pos.getY() >> START_SHIFT, pos.getZ() >> START_SHIFT);
+    }
+
+    private static boolean isNeighbourCell(long a, long b) {
+        return Math.abs(BlockPos.getX(a) - BlockPos.getX(b)) <= 1
+                && Math.abs(BlockPos.getY(a) - BlockPos.getY(b)) <= 1
+                && Math.abs(BlockPos.getZ(a) - BlockPos.getZ(b)) <= 1;
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.antitower;
 
+import com.example.ai.HuntScheduler;
+import com.example.ai.NavigabilityIndex;
+import com.example.ai.SearchCache;
 import net.minecraft.core.BlockPos;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.entity.Mob;
@@ -21,8 +24,8 @@ public class MobBreakerHandler {
         if (mob.level().isClientSide)
             return;
 
-        // Check every 5 ticks to avoid excessive raycasting
-        if (mob.tickCount % 5 != 0)
+        // Check every 5 ticks to avoid excessive raycasting, staggered across mobs
+        if (!HuntScheduler.isDue(mob, HuntScheduler.Task.BREAK_CHECK))
             return;
 
         // Determine if we should attempt to break blocks
@@ -41,6 +44,11 @@ public class MobBreakerHandler {
             end = start.add(direction);
         }
 
+        // Nothing solid within reach: skip the raycast
+        if (!NavigabilityIndex.anySolidAlong(mob.level(), start, end)) {
+            return;
+        }
+
         BlockHitResult hit = mob.level().clip(new ClipContext(
                 start, end,
                 ClipContext.Block.COLLIDER,
@@ -89,6 +97,7 @@ public class MobBreakerHandler {
         if (currentDamage > 1.0f)
             currentDamage = 1.0f;
         blockDamage.put(pos, currentDamage);
+        SearchCache.onBreakStateChanged(pos);
 
         // Visuals
         int progressStage = (int) (currentDamage * 9);
@@ -110,6 +119,7 @@ public class MobBreakerHandler {
 
     public static void clearAll() {
         blockDamage.clear();
+        SearchCache.clearAll();
         // Ideally we would also clear visuals on the server level but we don't have
         // easy access to all levels here without context.
         // The visuals will fade eventually or can be ignored.
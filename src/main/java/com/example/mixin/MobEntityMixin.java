@@ -1,7 +1,11 @@
 package com.example.mixin;
 
 import com.example.ChallengeMod;
+import com.example.ai.HuntAgents;
 import com.example.ai.HuntRules;
+import com.example.ai.HuntScheduler;
+import com.example.ai.NavRequests;
+import com.example.ai.Neighbourhood;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.world.entity.Mob;
@@ -19,7 +23,7 @@ import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
 @Mixin(Mob.class)
-public abstract class MobEntityMixin {
+public abstract class MobEntityMixin implements HuntAgents.Agent, HuntRules.Hunter, NavRequests.Requester, Neighbourhood.Holder {
 	@Unique
 	private long lastDebugTick;
 
@@ -27,16 +31,29 @@ public abstract class MobEntityMixin {
 	private long lastPassiveAttackTick;
 
 	@Unique
-	private int retargetCooldown;
+	private boolean huntRangeSet;
 
+	// Index of this mob's path and building state in HuntAgents, 0 if none
 	@Unique
-	private boolean huntRangeSet;
+	private int agentSlot;
 
+	// Result of the batched target pass, picked up on the next hunt step
 	@Unique
-	private static final double WATER_SPEED_MULTIPLIER = 1.8D;
+	private Player assignedTarget;
+
+	@Unique
+	private boolean targetAssigned;
+
+	// Last navigation request the hunt AI passed on, see NavRequests
+	@Unique
+	private NavRequests.Request navRequest;
+
+	// Solid blocks around the mob for the climbing logic, see Neighbourhood
+	@Unique
+	private Neighbourhood.Snapshot neighbourhood;
 
 	@Unique
-	private static final int RETARGET_INTERVAL = 20;
+	private static final double WATER_SPEED_MULTIPLIER = 1.8D;
 
 	@Inject(method = "registerGoals", at = @At("TAIL"))
 	private void challengemod$registerFollowRange(CallbackInfo info) {
@@ -72,8 +89,8 @@ public abstract class MobEntityMixin {
 			ensureHuntRange(mob);
 		}
 
-		int interval = ChallengeMod.getTargetIntervalTicks();
-		if (interval > 1 && (mob.tickCount % interval) != 0) {
+		// Staggered per mob, so slow targeting doesn't step every hunter on the same tick
+		if (!HuntScheduler.isDue(mob, HuntScheduler.Task.HUNT_STEP, ChallengeMod.getTargetIntervalTicks())) {
 			return;
 		}
 
@@ -85,10 +102,21 @@ public abstract class MobEntityMixin {
 			target = currentTarget;
 		}
 
-		// Only search for new target when cooldown expires or no valid target
-		if (target == null || --this.retargetCooldown <= 0) {
+		if (this.targetAssigned) {
+			// Nearest player from the batched pass this mob enlisted for
+			this.targetAssigned = false;
+			if (this.assignedTarget != null && HuntRules.isValidPlayerTarget(this.assignedTarget)) {
+				target = this.assignedTarget;
+			}
+			this.assignedTarget = null;
+		} else if (target != null && HuntScheduler.isDue(mob, HuntScheduler.Task.RETARGET)) {
+			// Look for a nearer player in the next batched pass, keep the current one until then
+			HuntRules.enlist(mob);
+		}
+
+		// No valid target: search right away
+		if (target == null) {
 			target = HuntRules.findClosestTarget(mob);
-			this.retargetCooldown = RETARGET_INTERVAL;
 		}
 
 		if (target == null) {
@@ -172,7 +200,7 @@ public abstract class MobEntityMixin {
 
 		// Only use vanilla navigation if A* is not active and not in siege mode
 		if (!usingAStar && !isSiegeMode) {
-			mob.getNavigation().moveTo(target, speed);
+			NavRequests.moveTo(mob, target, speed);
 		}
 
 		tryPassiveMelee(mob, target);
@@ -183,15 +211,17 @@ public abstract class MobEntityMixin {
 
 		// Spider-like climbing: if blocked by wall OR next to wall and target is above
 		// (or we need to maintain height to vault)
+		// Every block probe below reads this snapshot, sampled again only when the mob moved or blocks changed
+		Neighbourhood.Snapshot around = Neighbourhood.around(mob);
 		Vec3 wallAttraction = Vec3.ZERO;
-		BlockPos mobPos = mob.blockPosition();
-		if (mob.level().getBlockState(mobPos.north()).blocksMotion())
+		int wallMask = around.cardinalMask(0);
+		if (hasWall(wallMask, Direction.NORTH))
 			wallAttraction = wallAttraction.add(0, 0, -1);
-		if (mob.level().getBlockState(mobPos.south()).blocksMotion())
+		if (hasWall(wallMask, Direction.SOUTH))
 			wallAttraction = wallAttraction.add(0, 0, 1);
-		if (mob.level().getBlockState(mobPos.east()).blocksMotion())
+		if (hasWall(wallMask, Direction.EAST))
 			wallAttraction = wallAttraction.add(1, 0, 0);
-		if (mob.level().getBlockState(mobPos.west()).blocksMotion())
+		if (hasWall(wallMask, Direction.WEST))
 			wallAttraction = wallAttraction.add(-1, 0, 0);
 
 		boolean isNextToWall = wallAttraction.lengthSqr() > 0;
@@ -219,8 +249,7 @@ public abstract class MobEntityMixin {
 		boolean hasWallFace = false;
 		Direction facing = mob.getDirection();
 		for (int i = 0; i <= 1; i++) {
-			BlockPos checkPos = mobBlockPos.relative(facing).above(i);
-			if (mob.level().getBlockState(checkPos).blocksMotion()) {
+			if (around.isSolid(facing, i)) {
 				hasWallFace = true;
 				break;
 			}
@@ -241,14 +270,14 @@ public abstract class MobEntityMixin {
 				// This prevents mobs from pulling themselves off the wall to reach the center
 				// of the air block.
 				Vec3 suctionVector = Vec3.ZERO;
-				BlockPos currentPos = mob.blockPosition();
-				if (mob.level().getBlockState(currentPos.north()).blocksMotion())
+				// Same walls as wallAttraction, the mob hasn't moved since
+				if (hasWall(wallMask, Direction.NORTH))
 					suctionVector = suctionVector.add(0, 0, -1);
-				if (mob.level().getBlockState(currentPos.south()).blocksMotion())
+				if (hasWall(wallMask, Direction.SOUTH))
 					suctionVector = suctionVector.add(0, 0, 1);
-				if (mob.level().getBlockState(currentPos.east()).blocksMotion())
+				if (hasWall(wallMask, Direction.EAST))
 					suctionVector = suctionVector.add(1, 0, 0);
-				if (mob.level().getBlockState(currentPos.west()).blocksMotion())
+				if (hasWall(wallMask, Direction.WEST))
 					suctionVector = suctionVector.add(-1, 0, 0);
 
 				if (suctionVector.lengthSqr() > 0) {
@@ -327,15 +356,20 @@ public abstract class MobEntityMixin {
 			// 1-high gaps
 			BlockPos directAbove = mob.blockPosition().above();
 
-			if (mob.level().getBlockState(headerPos).getDestroySpeed(mob.level(), headerPos) >= 0) {
-				com.example.antitower.MobBreakerHandler.damageBlock(
-						(net.minecraft.server.level.ServerLevel) mob.level(), headerPos, mob,
-						mob.level().getBlockState(headerPos).getDestroySpeed(mob.level(), headerPos));
+			// Only solid blocks can be in the way; their states are read just for the break speed
+			if (around.isSolid(0, 2, 0)) {
+				float destroySpeed = mob.level().getBlockState(headerPos).getDestroySpeed(mob.level(), headerPos);
+				if (destroySpeed >= 0) {
+					com.example.antitower.MobBreakerHandler.damageBlock(
+							(net.minecraft.server.level.ServerLevel) mob.level(), headerPos, mob, destroySpeed);
+				}
 			}
-			if (mob.level().getBlockState(directAbove).getDestroySpeed(mob.level(), directAbove) >= 0) {
-				com.example.antitower.MobBreakerHandler.damageBlock(
-						(net.minecraft.server.level.ServerLevel) mob.level(), directAbove, mob,
-						mob.level().getBlockState(directAbove).getDestroySpeed(mob.level(), directAbove));
+			if (around.isSolid(0, 1, 0)) {
+				float destroySpeed = mob.level().getBlockState(directAbove).getDestroySpeed(mob.level(), directAbove);
+				if (destroySpeed >= 0) {
+					com.example.antitower.MobBreakerHandler.damageBlock(
+							(net.minecraft.server.level.ServerLevel) mob.level(), directAbove, mob, destroySpeed);
+				}
 			}
 		}
 
@@ -353,12 +387,13 @@ public abstract class MobEntityMixin {
 				// tower base.
 				// This allows natural exploration using standard pathfinding.
 
-				if (mob.getNavigation().isDone() || mob.getNavigation().isStuck() || mob.tickCount % 40 == 0) {
+				if (mob.getNavigation().isDone() || mob.getNavigation().isStuck()
+						|| HuntScheduler.isDue(mob, HuntScheduler.Task.PATROL)) {
 					// 30% chance to charge the center (try to climb)
 					// 70% chance to wander to a random spot around the base
 					if (mob.getRandom().nextFloat() < 0.3f) {
 						// Charge center
-						mob.getNavigation().moveTo(target.getX(), mob.getY(), target.getZ(), speed);
+						NavRequests.moveTo(mob, target.getX(), mob.getY(), target.getZ(), speed);
 						mob.getLookControl().setLookAt(target.getX(), mob.getEyeY(), target.getZ());
 					} else {
 						// Pick random spot 2-10 blocks away from center
@@ -367,7 +402,7 @@ public abstract class MobEntityMixin {
 						double destX = target.getX() + Math.cos(angle) * dist;
 						double destZ = target.getZ() + Math.sin(angle) * dist;
 
-						mob.getNavigation().moveTo(destX, mob.getY(), destZ, speed);
+						NavRequests.moveTo(mob, destX, mob.getY(), destZ, speed);
 						mob.getLookControl().setLookAt(destX, mob.getEyeY(), destZ);
 					}
 				}
@@ -378,8 +413,8 @@ public abstract class MobEntityMixin {
 				}
 			} else if (horizontalDistSqr < 900.0) {
 				// If further away (20-30 blocks), try to get to the base
-				if (mob.tickCount % 20 == 0) {
-					mob.getNavigation().moveTo(target.getX(), mob.getY(), target.getZ(), speed);
+				if (HuntScheduler.isDue(mob, HuntScheduler.Task.APPROACH)) {
+					NavRequests.moveTo(mob, target.getX(), mob.getY(), target.getZ(), speed);
 				}
 			}
 		}
@@ -430,6 +465,38 @@ public abstract class MobEntityMixin {
 		return true;
 	}
 
+	@Override
+	public int challengemod$agentSlot() {
+		return this.agentSlot;
+	}
+
+	@Override
+	public void challengemod$setAgentSlot(int slot) {
+		this.agentSlot = slot;
+	}
+
+	@Override
+	public void challengemod$assignTarget(Player target) {
+		this.assignedTarget = target;
+		this.targetAssigned = true;
+	}
+
+	@Override
+	public NavRequests.Request challengemod$navRequest() {
+		if (this.navRequest == null) {
+			this.navRequest = new NavRequests.Request();
+		}
+		return this.navRequest;
+	}
+
+	@Override
+	public Neighbourhood.Snapshot challengemod$neighbourhood() {
+		if (this.neighbourhood == null) {
+			this.neighbourhood = new Neighbourhood.Snapshot();
+		}
+		return this.neighbourhood;
+	}
+
 	@Unique
 	private void ensureHuntRange(Mob mob) {
 		AttributeInstance followRange = mob.getAttribute(Attributes.FOLLOW_RANGE);
@@ -457,6 +524,11 @@ public abstract class MobEntityMixin {
 		target.hurt(mob.damageSources().mobAttack(mob), 2.0F);
 	}
 
+	@Unique
+	private static boolean hasWall(int cardinalMask, Direction direction) {
+		return (cardinalMask & (1 << direction.get2DDataValue())) != 0;
+	}
+
 	@Unique
 	private static boolean isPassiveAnimal(Mob mob) {
 		return mob instanceof Animal && !(mob instanceof NeutralMob) && !(mob instanceof Monster);
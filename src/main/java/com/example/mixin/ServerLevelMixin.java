@@ -0,0 +1,24 @@
+package com.example.mixin;
+
+import com.example.ai.Landmarks;
+import com.example.ai.NavigabilityIndex;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.block.state.BlockState;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Mixin to feed block changes into the navigability index and landmark tables.
+ */
+@Mixin(ServerLevel.class)
+public abstract class ServerLevelMixin {
+
+    @Inject(method = "onBlockStateChange", at = @At("HEAD"))
+    private void challengemod$onBlockStateChange(BlockPos pos, BlockState oldState, BlockState newState, CallbackInfo ci) {
+        NavigabilityIndex.onBlockChanged((ServerLevel) (Object) this, pos, newState);
+        Landmarks.onBlockChanged((ServerLevel) (Object) this, pos);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.ai;
+
+import net.minecraft.core.BlockPos;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AStarPathfinderTest {
+
+    private static final BlockPos OUTSIDE = new BlockPos(10, 9, 10);
+    private static final BlockPos INSIDE = new BlockPos(60, 9, 61);
+    private static final BlockPos ALSO_INSIDE = new BlockPos(61, 9, 59);
+
+    // Stone ground up to y = 8 and a stone box around (60, 60), four blocks high, with its
+    // west wall open at one block or the top closed by a roof
+    private static NavSnapshot box(boolean doorway, boolean roof) {
+        return TestWorlds.build(7, 2, 7, (x, y, z) -> {
+            if (y <= 8) {
+                return TestWorlds.STONE;
+            }
+            boolean ring = Math.abs(x - 60) == 4 && Math.abs(z - 60) <= 4 || Math.abs(z - 60) == 4 && Math.abs(x - 60) <= 4;
+            if (y <= 12 && ring && !(doorway && x == 56 && z == 60)) {
+                return TestWorlds.STONE;
+            }
+            if (roof && y == 13 && Math.abs(x - 60) <= 4 && Math.abs(z - 60) <= 4) {
+                return TestWorlds.STONE;
+            }
+            return TestWorlds.AIR;
+        });
+    }
+
+    private static AStarPathfinder.PathResult run(AStarPathfinder.Search search) {
+        while (!search.isDone()) {
+            search.step(100_000);
+        }
+        return search.result();
+    }
+
+    // A walk-only search without the backward frontier: does any walk get there?
+    private static boolean walkReaches(NavSnapshot snapshot, BlockPos start, BlockPos target) {
+        AStarPathfinder.PathResult result = run(new AStarPathfinder.Search(snapshot, start, target, false, false, 0, 200_000));
+        // A walk that falls short still comes back as a partial path, so check where it ends
+        return result.found && result.path.last().distSqr(target) < 4.0;
+    }
+
+    private static boolean enclosed(NavSnapshot snapshot, BlockPos start, BlockPos target) {
+        return run(AStarPathfinder.Search.layered(snapshot, start, target, 12000, false, null)).enclosed;
+    }
+
+    private static void assertAgrees(NavSnapshot snapshot, BlockPos start, BlockPos target) {
+        assertEquals(!walkReaches(snapshot, start, target), enclosed(snapshot, start, target), start + " -> " + target);
+    }
+
+    @Test
+    void boxWithDoorwayIsNotEnclosed() {
+        NavSnapshot snapshot = box(true, true);
+
+        assertTrue(walkReaches(snapshot, OUTSIDE, INSIDE));
+        assertAgrees(snapshot, OUTSIDE, INSIDE);
+    }
+
+    @Test
+    void sealedBoxIsEnclosed() {
+        NavSnapshot snapshot = box(false, true);
+
+        assertFalse(walkReaches(snapshot, OUTSIDE, INSIDE));
+        assertAgrees(snapshot, OUTSIDE, INSIDE);
+    }
+
+    @Test
+    void startInsideSealedBoxIsNotEnclosed() {
+        NavSnapshot snapshot = box(false, true);
+
+        assertTrue(walkReaches(snapshot, ALSO_INSIDE, INSIDE));
+        assertAgrees(snapshot, ALSO_INSIDE, INSIDE);
+    }
+
+    @Test
+    void openGroundIsNotEnclosed() {
+        NavSnapshot snapshot = box(true, false);
+
+        // The backward frontier stops at its size limit here instead of running out
+        assertAgrees(snapshot, OUTSIDE, INSIDE);
+        assertAgrees(snapshot, OUTSIDE, new BlockPos(90, 9, 20));
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.ai;
+
+import net.minecraft.core.BlockPos;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlowFieldTest {
+
+    // Bedrock floor at y = 0, with walls and a step to walk around and over
+    private static int terrain(int x, int y, int z) {
+        if (y == 0) {
+            return TestWorlds.BEDROCK;
+        }
+        if (y <= 3 && ((x == 50 && z >= 20 && z <= 70) || (z == 30 && x >= 10 && x <= 45))) {
+            return TestWorlds.BEDROCK;
+        }
+        if (y == 1 && x >= 28 && x <= 32 && z == 50) {
+            return TestWorlds.STONE;
+        }
+        return TestWorlds.AIR;
+    }
+
+    // The same, with a new wall across the middle
+    private static int changedTerrain(int x, int y, int z) {
+        if (y >= 1 && y <= 3 && z == 60 && x >= 20 && x <= 49) {
+            return TestWorlds.BEDROCK;
+        }
+        return terrain(x, y, z);
+    }
+
+    private static FlowField.Build build(NavSnapshot snapshot, BlockPos root, FlowField.Build previous) {
+        FlowField.Build build = new FlowField.Build(new PathNodeStore(), new FlowField.Edges(), new BlockClassCache(), snapshot, root, null);
+        if (previous != null) {
+            build.repairFrom(previous.nodes, previous.edges, previous.snapshot);
+        }
+        while (!build.isFinished()) {
+            build.run(1_000_000);
+        }
+        return build;
+    }
+
+    // Every cell of the fresh field is in the repaired one at the same distance, and no other cell is
+    private static void assertSameField(FlowField.Build fresh, FlowField.Build repaired) {
+        assertTrue(fresh.complete);
+        assertTrue(repaired.complete);
+        assertEquals(fresh.nodes.size(), repaired.nodes.size());
+        for (int node = 0; node < fresh.nodes.size(); node++) {
+            long pos = fresh.nodes.pos(node);
+            int other = repaired.nodes.find(pos);
+            assertNotEquals(PathNodeStore.NO_NODE, other, "missing " + BlockPos.of(pos));
+            double expected = fresh.nodes.gCost(node);
+            double actual = repaired.nodes.gCost(other);
+            assertTrue(Math.abs(expected - actual) <= 1e-4, BlockPos.of(pos) + ": expected " + expected + ", repaired " + actual);
+        }
+    }
+
+    @Test
+    void repairAfterTargetMoveMatchesFreshBuild() {
+        NavSnapshot snapshot = TestWorlds.build(6, 1, 6, FlowFieldTest::terrain);
+        BlockPos before = new BlockPos(40, 1, 40);
+        BlockPos after = new BlockPos(44, 1, 43);
+
+        FlowField.Build previous = build(snapshot, before, null);
+        FlowField.Build repaired = build(snapshot, after, previous);
+        FlowField.Build fresh = build(snapshot, after, null);
+
+        assertSameField(fresh, repaired);
+    }
+
+    @Test
+    void repairAfterBlockChangeMatchesFreshBuild() {
+        NavSnapshot snapshot = TestWorlds.build(6, 1, 6, FlowFieldTest::terrain);
+        NavSnapshot changed = TestWorlds.change(snapshot, FlowFieldTest::changedTerrain);
+        BlockPos root = new BlockPos(40, 1, 40);
+
+        FlowField.Build previous = build(snapshot, root, null);
+        FlowField.Build repaired = build(changed, root, previous);
+        FlowField.Build fresh = build(changed, root, null);
+
+        assertSameField(fresh, repaired);
+        // The wall made the far side further away
+        long behindWall = BlockPos.asLong(35, 1, 61);
+        assertTrue(fresh.nodes.gCost(fresh.nodes.find(behindWall)) > previous.nodes.gCost(previous.nodes.find(behindWall)));
+    }
+
+    @Test
+    void fieldThatNeverLeavesItsRootIsNotComplete() {
+        NavSnapshot snapshot = TestWorlds.build(6, 1, 6, FlowFieldTest::terrain);
+
+        // Mid-air above the floor: nothing can stand there, so nothing walks in
+        FlowField.Build airborne = build(snapshot, new BlockPos(40, 8, 40), null);
+
+        assertEquals(1, airborne.nodes.size());
+        assertTrue(!airborne.complete);
+    }
+}
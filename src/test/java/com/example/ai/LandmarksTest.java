@@ -0,0 +1,145 @@
+package com.example.ai;
+
+import net.minecraft.core.BlockPos;
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LandmarksTest {
+
+    private static final int SIZE_X = 64;
+    private static final int SIZE_Y = 32;
+    private static final int SIZE_Z = 64;
+    private static final int HALF_BREAK_COST = (int) AStarPathfinder.LAYER_PENALTY[AStarPathfinder.LAYER_SOFT_BREAK] / 2;
+
+    // Stone floor on bedrock, split by a bedrock wall with a gap at its far end, and a stone pillar to dig through or go round
+    private static int terrain(int x, int y, int z) {
+        if (y <= 7) {
+            return TestWorlds.BEDROCK;
+        }
+        if (y == 8) {
+            return TestWorlds.STONE;
+        }
+        if (x == 32 && z <= 55) {
+            return TestWorlds.BEDROCK;
+        }
+        if (x >= 10 && x <= 20 && z >= 40 && z <= 45) {
+            return TestWorlds.STONE;
+        }
+        return TestWorlds.AIR;
+    }
+
+    private static Landmarks.Table table(NavSnapshot snapshot, BlockPos centre) {
+        Landmarks.Build build = new Landmarks.Build(new Landmarks.PlayerTables(null), snapshot, centre, null, 0);
+        while (!build.isFinished()) {
+            build.run(1_000_000);
+        }
+        return build.table();
+    }
+
+    // The table's own grid rules, as cost: open 0, breakable 1, blocked 2 (impassable)
+    private static int cellClass(NavSnapshot snapshot, int x, int y, int z) {
+        return Math.max(blockClass(snapshot.query(BlockPos.asLong(x, y, z))), blockClass(snapshot.query(BlockPos.asLong(x, y + 1, z))));
+    }
+
+    private static int blockClass(int code) {
+        if (code == NavigabilityIndex.UNLOADED) {
+            return 2;
+        }
+        if ((code & BlockClassCache.PASSABLE) != 0) {
+            return 0;
+        }
+        return NavigabilityIndex.hardness(code) < 0 ? 2 : 1;
+    }
+
+    private static int index(int x, int y, int z) {
+        return (y * SIZE_Z + z) * SIZE_X + x;
+    }
+
+    // Exact grid cost from goal to every cell, by a plain Dijkstra
+    private static int[] trueCosts(NavSnapshot snapshot, BlockPos goal) {
+        int[] classes = new int[SIZE_X * SIZE_Y * SIZE_Z];
+        for (int y = 0; y < SIZE_Y; y++) {
+            for (int z = 0; z < SIZE_Z; z++) {
+                for (int x = 0; x < SIZE_X; x++) {
+                    classes[index(x, y, z)] = cellClass(snapshot, x, y, z);
+                }
+            }
+        }
+        int[] costs = new int[classes.length];
+        Arrays.fill(costs, Integer.MAX_VALUE);
+        PriorityQueue<int[]> open = new PriorityQueue<>((a, b) -> Integer.compare(a[0], b[0]));
+        costs[index(goal.getX(), goal.getY(), goal.getZ())] = 0;
+        open.add(new int[] { 0, goal.getX(), goal.getY(), goal.getZ() });
+        while (!open.isEmpty()) {
+            int[] next = open.poll();
+            int cell = index(next[1], next[2], next[3]);
+            if (next[0] != costs[cell]) {
+                continue;
+            }
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    for (int dx = -1; dx <= 1; dx++) {
+                        int x = next[1] + dx;
+                        int y = next[2] + dy;
+                        int z = next[3] + dz;
+                        if (x < 0 || y < 0 || z < 0 || x >= SIZE_X || y >= SIZE_Y || z >= SIZE_Z) {
+                            continue;
+                        }
+                        int neighbor = index(x, y, z);
+                        if (classes[neighbor] == 2) {
+                            continue;
+                        }
+                        int cost = next[0] + 1 + (classes[cell] + classes[neighbor]) * HALF_BREAK_COST;
+                        if (cost < costs[neighbor]) {
+                            costs[neighbor] = cost;
+                            open.add(new int[] { cost, x, y, z });
+                        }
+                    }
+                }
+            }
+        }
+        return costs;
+    }
+
+    @Test
+    void lowerBoundNeverExceedsTrueCost() {
+        NavSnapshot snapshot = TestWorlds.build(4, 2, 4, LandmarksTest::terrain);
+        Landmarks.Table table = table(snapshot, new BlockPos(20, 9, 20));
+        BlockPos start = new BlockPos(24, 9, 10);
+        BlockPos goal = new BlockPos(40, 9, 10);
+
+        Landmarks.Estimator estimator = table.towards(start, goal);
+        assertNotNull(estimator);
+        int[] costs = trueCosts(snapshot, goal);
+        int reached = 0;
+        for (int y = 0; y < SIZE_Y; y++) {
+            for (int z = 0; z < SIZE_Z; z++) {
+                for (int x = 0; x < SIZE_X; x++) {
+                    int cost = costs[index(x, y, z)];
+                    if (cost != Integer.MAX_VALUE) {
+                        int bound = estimator.lowerBound(BlockPos.asLong(x, y, z));
+                        assertTrue(bound <= cost, "(" + x + ", " + y + ", " + z + "): bound " + bound + " over cost " + cost);
+                        reached++;
+                    }
+                }
+            }
+        }
+        assertTrue(reached > 1000);
+    }
+
+    @Test
+    void lowerBoundSeesTheDetour() {
+        NavSnapshot snapshot = TestWorlds.build(4, 2, 4, LandmarksTest::terrain);
+        Landmarks.Table table = table(snapshot, new BlockPos(20, 9, 20));
+        BlockPos start = new BlockPos(24, 9, 10);
+        BlockPos goal = new BlockPos(40, 9, 10);
+
+        // Straight across is 16 blocks, but the wall makes the walk round its gap far longer
+        int bound = table.towards(start, goal).lowerBound(start.asLong());
+        assertTrue(bound > 40, "bound " + bound);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.ai;
+
+import net.minecraft.core.BlockPos;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PackedPathTest {
+
+    @Test
+    void plainWalkHasNoFlags() {
+        PackedPath path = PackedPath.of(List.of(new BlockPos(0, 64, 0), new BlockPos(1, 64, 0), new BlockPos(2, 65, 0)));
+
+        assertEquals(3, path.size());
+        assertEquals(new BlockPos(1, 64, 0), path.get(1));
+        assertEquals(new BlockPos(2, 65, 0), path.last());
+        for (int i = 0; i < path.size(); i++) {
+            assertEquals(0, path.flags(i));
+            assertNull(path.buildTarget(i));
+        }
+        assertFalse(path.hasPlacements());
+    }
+
+    @Test
+    void placementsStandOnTheirBlock() {
+        BlockPos first = new BlockPos(5, 70, -3);
+        BlockPos second = new BlockPos(5, 71, -3);
+        PackedPath path = PackedPath.placements(List.of(first, second));
+
+        assertEquals(2, path.size());
+        assertTrue(path.hasPlacements());
+        assertEquals(first.above(), path.get(0));
+        assertEquals(first, path.buildTarget(0));
+        assertEquals(second, path.buildTarget(1));
+        assertTrue(path.has(1, PackedPath.PLACE));
+        assertFalse(path.has(1, PackedPath.BREAK));
+    }
+
+    @Test
+    void flagsStayWithTheirNodes() {
+        long[] positions = { BlockPos.asLong(0, 64, 0), BlockPos.asLong(1, 65, 0), BlockPos.asLong(2, 65, 0), BlockPos.asLong(3, 63, 0) };
+        byte[] flags = { 0, PackedPath.JUMP | PackedPath.PLACE, PackedPath.BREAK, PackedPath.DROP };
+        PackedPath path = PackedPath.wrap(positions, flags);
+
+        assertTrue(path.has(1, PackedPath.JUMP));
+        assertTrue(path.has(1, PackedPath.PLACE));
+        assertEquals(new BlockPos(1, 64, 0), path.buildTarget(1));
+        assertTrue(path.hasPlacements());
+
+        PackedPath rest = path.from(2);
+        assertEquals(2, rest.size());
+        assertEquals(positions[2], rest.pos(0));
+        assertTrue(rest.has(0, PackedPath.BREAK));
+        assertTrue(rest.has(1, PackedPath.DROP));
+        // The only placement was cut off
+        assertFalse(rest.hasPlacements());
+        assertSame(path, path.from(0));
+    }
+
+    @Test
+    void emptyPathIsShared() {
+        PackedPath path = PackedPath.wrap(new long[0], new byte[0]);
+
+        assertSame(PackedPath.EMPTY, path);
+        assertTrue(path.isEmpty());
+        assertNull(path.last());
+        assertSame(PackedPath.EMPTY, PackedPath.of(List.of()));
+    }
+}
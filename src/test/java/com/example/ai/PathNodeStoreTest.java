@@ -0,0 +1,110 @@
+package com.example.ai;
+
+import net.minecraft.core.BlockPos;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PathNodeStoreTest {
+
+    private static int queue(PathNodeStore store, long key, double g, double h) {
+        int node = store.getOrCreate(key);
+        store.update(node, PathNodeStore.NO_NODE, g, h);
+        store.push(node);
+        return node;
+    }
+
+    @Test
+    void pollsCheapestFirst() {
+        PathNodeStore store = new PathNodeStore();
+        double[] costs = { 7, 3, 9, 1, 4, 8, 2, 6, 5, 0 };
+        for (int i = 0; i < costs.length; i++) {
+            queue(store, BlockPos.asLong(i, 0, 0), costs[i], 0);
+        }
+
+        double last = -1;
+        int polled = 0;
+        while (!store.isOpenEmpty()) {
+            double f = store.fCost(store.poll());
+            assertTrue(f >= last, "polled " + f + " after " + last);
+            last = f;
+            polled++;
+        }
+        assertEquals(costs.length, polled);
+    }
+
+    @Test
+    void tiesGoToTheLowerEstimate() {
+        PathNodeStore store = new PathNodeStore();
+        int far = queue(store, BlockPos.asLong(0, 0, 0), 2, 8);
+        int near = queue(store, BlockPos.asLong(1, 0, 0), 8, 2);
+
+        assertEquals(near, store.poll());
+        assertEquals(far, store.poll());
+    }
+
+    @Test
+    void cheaperRouteMovesNodeUp() {
+        PathNodeStore store = new PathNodeStore();
+        queue(store, BlockPos.asLong(0, 0, 0), 5, 0);
+        queue(store, BlockPos.asLong(1, 0, 0), 6, 0);
+        int late = queue(store, BlockPos.asLong(2, 0, 0), 10, 0);
+        int parent = store.getOrCreate(BlockPos.asLong(9, 9, 9));
+
+        // Decrease-key: the node is found again and pushed once more, not queued twice
+        assertEquals(late, store.getOrCreate(BlockPos.asLong(2, 0, 0)));
+        store.update(late, parent, 1, 0);
+        store.push(late);
+
+        assertEquals(late, store.poll());
+        assertEquals(parent, store.parent(late));
+        store.poll();
+        store.poll();
+        assertTrue(store.isOpenEmpty());
+    }
+
+    @Test
+    void closedNodesStayClosed() {
+        PathNodeStore store = new PathNodeStore();
+        int node = queue(store, BlockPos.asLong(3, 4, 5), 1, 1);
+
+        assertEquals(node, store.poll());
+        assertFalse(store.isClosed(node));
+        store.close(node);
+        assertTrue(store.isClosed(node));
+        assertTrue(store.isOpenEmpty());
+    }
+
+    @Test
+    void findsNodesAfterGrowing() {
+        PathNodeStore store = new PathNodeStore();
+        int count = 10000;
+        for (int i = 0; i < count; i++) {
+            queue(store, BlockPos.asLong(i % 100, i / 10000, i / 100), count - i, 0);
+        }
+
+        assertEquals(count, store.size());
+        for (int i = 0; i < count; i++) {
+            long key = BlockPos.asLong(i % 100, i / 10000, i / 100);
+            int node = store.find(key);
+            assertEquals(key, store.pos(node));
+        }
+        assertEquals(PathNodeStore.NO_NODE, store.find(BlockPos.asLong(-1, 0, 0)));
+        // Highest cost went in first, cheapest last
+        assertEquals(BlockPos.asLong(99, 0, 99), store.pos(store.poll()));
+    }
+
+    @Test
+    void resetForgetsEverything() {
+        PathNodeStore store = new PathNodeStore();
+        queue(store, BlockPos.asLong(0, 0, 0), 1, 1);
+        queue(store, BlockPos.asLong(1, 0, 0), 2, 1);
+        store.reset();
+
+        assertEquals(0, store.size());
+        assertTrue(store.isOpenEmpty());
+        assertEquals(PathNodeStore.NO_NODE, store.find(BlockPos.asLong(0, 0, 0)));
+    }
+}
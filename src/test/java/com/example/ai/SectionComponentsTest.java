@@ -0,0 +1,76 @@
+package com.example.ai;
+
+import com.example.ai.NavigabilityIndex.SectionNav;
+import com.example.ai.Reachability.SectionComponents;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SectionComponentsTest {
+
+    private static SectionNav solid() {
+        SectionNav section = SectionNav.EMPTY.copy();
+        for (int i = 0; i < 4096; i++) {
+            section.set(i, BlockClassCache.SOLID);
+        }
+        return section;
+    }
+
+    private static void open(SectionNav section, int x, int y, int z) {
+        section.set(SectionNav.index(x, y, z), NavigabilityIndex.AIR_CODE);
+    }
+
+    @Test
+    void openSectionIsOneComponent() {
+        SectionComponents components = SectionComponents.of(SectionNav.EMPTY.copy());
+
+        assertEquals(1, components.count);
+        for (int i = 0; i < 4096; i++) {
+            assertEquals(1, components.component[i]);
+        }
+    }
+
+    @Test
+    void wallSeparatesTwoSides() {
+        SectionNav section = SectionNav.EMPTY.copy();
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                section.set(SectionNav.index(8, y, z), BlockClassCache.SOLID);
+            }
+        }
+        SectionComponents components = SectionComponents.of(section);
+
+        assertEquals(2, components.count);
+        assertEquals(0, components.component[SectionNav.index(8, 3, 3)]);
+        assertEquals(components.component[SectionNav.index(0, 0, 0)], components.component[SectionNav.index(7, 15, 15)]);
+        assertEquals(components.component[SectionNav.index(9, 0, 0)], components.component[SectionNav.index(15, 15, 15)]);
+        assertNotEquals(components.component[SectionNav.index(7, 0, 0)], components.component[SectionNav.index(9, 0, 0)]);
+    }
+
+    @Test
+    void diagonalNeighboursConnect() {
+        SectionNav section = solid();
+        open(section, 2, 2, 2);
+        open(section, 3, 3, 3);
+        open(section, 4, 2, 4);
+        open(section, 10, 10, 10);
+        SectionComponents components = SectionComponents.of(section);
+
+        // Corner-to-corner cells join up; a pocket two blocks away doesn't
+        assertEquals(2, components.count);
+        short first = components.component[SectionNav.index(2, 2, 2)];
+        assertEquals(first, components.component[SectionNav.index(3, 3, 3)]);
+        assertEquals(first, components.component[SectionNav.index(4, 2, 4)]);
+        assertNotEquals(first, components.component[SectionNav.index(10, 10, 10)]);
+        assertEquals(0, components.component[SectionNav.index(0, 0, 0)]);
+    }
+
+    @Test
+    void labelsAreCachedPerSection() {
+        SectionNav section = SectionNav.EMPTY.copy();
+
+        assertSame(SectionComponents.of(section), SectionComponents.of(section));
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.ai;
+
+import com.example.ai.NavigabilityIndex.SectionNav;
+import com.example.ai.PortalGraph.SectionPortals;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SectionPortalsTest {
+
+    // Open air over solid layers up to floorY, so the cells at floorY + 1 can be stood on
+    private static SectionNav flatFloor(int floorY) {
+        SectionNav section = SectionNav.EMPTY.copy();
+        for (int y = 0; y <= floorY; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    section.set(SectionNav.index(x, y, z), BlockClassCache.SOLID);
+                }
+            }
+        }
+        return section;
+    }
+
+    @Test
+    void eachFloorEdgeIsOnePortal() {
+        SectionPortals portals = SectionPortals.of(null, flatFloor(0), null);
+
+        // West, east, north and south edge, each from its centre cell; walking is Manhattan on a flat floor
+        short[] fromCorner = portals.distancesFrom(SectionNav.index(0, 1, 0));
+        assertArrayEquals(new short[] { 7, 22, 7, 22 }, fromCorner);
+    }
+
+    @Test
+    void wallSplitsPortals() {
+        SectionNav walled = flatFloor(0);
+        for (int y = 1; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                walled.set(SectionNav.index(8, y, z), BlockClassCache.SOLID);
+            }
+        }
+        SectionPortals portals = SectionPortals.of(null, walled, null);
+
+        // West, east, then the north and south edges split in two either side of the wall
+        short[] fromCorner = portals.distancesFrom(SectionNav.index(0, 1, 0));
+        assertArrayEquals(new short[] { 7, -1, 3, -1, 18, -1 }, fromCorner);
+    }
+
+    @Test
+    void onlyStandableCellsHaveDistances() {
+        SectionPortals portals = SectionPortals.of(null, flatFloor(0), null);
+
+        assertNull(portals.distancesFrom(SectionNav.index(4, 0, 4))); // Inside the floor
+        assertNull(portals.distancesFrom(SectionNav.index(4, 5, 4))); // In the air
+    }
+
+    @Test
+    void crossingsReachTheFacingPortal() {
+        SectionPortals west = SectionPortals.of(null, flatFloor(0), null);
+        SectionPortals east = SectionPortals.of(null, flatFloor(0), null);
+        SectionPortals raised = SectionPortals.of(null, flatFloor(3), null);
+
+        // West's east edge (portal 1) steps straight onto east's west edge (portal 0)
+        assertEquals(1L, west.crossings(1, east));
+        assertEquals(1L << 1, east.crossings(0, west));
+        // A three block step up can't be climbed
+        assertEquals(0L, west.crossings(1, raised));
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.ai;
+
+import com.example.ai.NavigabilityIndex.SectionNav;
+
+/**
+ * Snapshots of made-up terrain for tests, built from a block function over
+ * whole sections starting at section (0, 0, 0).
+ */
+final class TestWorlds {
+
+    static final int AIR = NavigabilityIndex.AIR_CODE;
+    // Breakable, hardness bucket 5 (up to 2.0, like stone)
+    static final int STONE = BlockClassCache.SOLID | 5 << NavigabilityIndex.HARDNESS_SHIFT;
+    // Unbreakable: hardness bucket 0
+    static final int BEDROCK = BlockClassCache.SOLID;
+
+    private static final int MIN_BUILD_Y = -64;
+    private static final int MAX_BUILD_Y = 320;
+
+    /**
+     * NavigabilityIndex code of the block at a position.
+     */
+    interface Terrain {
+        int code(int x, int y, int z);
+    }
+
+    private TestWorlds() {
+    }
+
+    static NavSnapshot build(int sectionsX, int sectionsY, int sectionsZ, Terrain terrain) {
+        return rebuild(null, sectionsX, sectionsY, sectionsZ, terrain);
+    }
+
+    /**
+     * The same box with new terrain. Sections whose blocks didn't change are the
+     * base snapshot's own, as the index only copies the sections it patches.
+     */
+    static NavSnapshot change(NavSnapshot base, Terrain terrain) {
+        return rebuild(base, base.sizeX(), base.sizeY(), base.sizeZ(), terrain);
+    }
+
+    private static NavSnapshot rebuild(NavSnapshot base, int sectionsX, int sectionsY, int sectionsZ, Terrain terrain) {
+        SectionNav[] sections = new SectionNav[sectionsX * sectionsY * sectionsZ];
+        for (int sy = 0; sy < sectionsY; sy++) {
+            for (int sz = 0; sz < sectionsZ; sz++) {
+                for (int sx = 0; sx < sectionsX; sx++) {
+                    SectionNav section = section(terrain, sx, sy, sz);
+                    SectionNav previous = base != null ? base.section(sx, sy, sz) : null;
+                    sections[(sy * sectionsZ + sz) * sectionsX + sx] = previous != null && sameBlocks(previous, section) ? previous : section;
+                }
+            }
+        }
+        return NavSnapshot.of(MIN_BUILD_Y, MAX_BUILD_Y, 0, 0, 0, sectionsX, sectionsY, sectionsZ, sections);
+    }
+
+    private static SectionNav section(Terrain terrain, int sx, int sy, int sz) {
+        SectionNav section = SectionNav.EMPTY.copy();
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    section.set(SectionNav.index(x, y, z), terrain.code(sx * 16 + x, sy * 16 + y, sz * 16 + z));
+                }
+            }
+        }
+        return section;
+    }
+
+    private static boolean sameBlocks(SectionNav a, SectionNav b) {
+        for (int i = 0; i < 4096; i++) {
+            if (a.code(i) != b.code(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}